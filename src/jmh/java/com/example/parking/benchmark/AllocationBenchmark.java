@@ -0,0 +1,83 @@
+package com.example.parking.benchmark;
+
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.ParkingSlot;
+import com.example.parking.entity.VehicleType;
+import com.example.parking.service.SlotAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory half of an entry followed by its exit: claim the nearest free slot from a
+ * gate, then release it. The database round-trips around it are left to the load generator.
+ * <p>
+ * {@code occupancy} pre-claims that share of every type, so the claim has to skip past
+ * taken slots; threads are spread over the first {@code gates} gates. Vary contention
+ * with JMH's {@code -t}. {@code mode=sharded} gives each gate its own shard of the lot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AllocationBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    int slots;
+
+    @Param({"1", "4"})
+    int gates;
+
+    @Param({"0", "0.9"})
+    double occupancy;
+
+    @Param({"nearest", "sharded"})
+    String mode;
+
+    private SlotAllocator allocator;
+
+    @Setup
+    public void setUp() {
+        List<ParkingSlot> lot = Lots.slots(slots);
+        allocator = new SlotAllocator(Lots.distances(slots), "sharded".equals(mode));
+        allocator.rebuild(() -> lot);
+
+        int perType = slots / VehicleType.values().length;
+        for (VehicleType type : VehicleType.values()) {
+            allocator.claim(Gate.GATE_1, type, (int) (perType * occupancy));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Entrance {
+        Gate gate;
+
+        @Setup
+        public void setUp(AllocationBenchmark lot, ThreadParams thread) {
+            gate = Gate.values()[thread.getThreadIndex() % Math.min(lot.gates, Gate.values().length)];
+        }
+    }
+
+    @Benchmark
+    public ParkingSlot claimAndRelease(Entrance entrance) {
+        ParkingSlot slot = allocator.claim(entrance.gate, VehicleType.CAR);
+        if (slot != null) {
+            allocator.release(slot);
+        }
+        return slot;
+    }
+}
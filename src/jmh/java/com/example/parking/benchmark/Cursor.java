@@ -0,0 +1,20 @@
+package com.example.parking.benchmark;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Position of one benchmark thread in the inputs drawn up front, so threads share no counter.
+ */
+@State(Scope.Thread)
+public class Cursor {
+
+    private int next;
+
+    /**
+     * The next index below {@code size}, a power of two; wraps around.
+     */
+    int next(int size) {
+        return next++ & (size - 1);
+    }
+}
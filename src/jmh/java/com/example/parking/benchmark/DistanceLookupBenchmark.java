@@ -0,0 +1,67 @@
+package com.example.parking.benchmark;
+
+import com.example.parking.entity.Gate;
+import com.example.parking.util.DistanceMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gate -> slot distance lookups at random slots: by slot number (hash to column, then
+ * the matrix) and by an already interned column, as the index build does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DistanceLookupBenchmark {
+
+    private static final int LOOKUPS = 4096;
+
+    @Param({"100", "10000", "1000000"})
+    int slots;
+
+    @Param({"1", "4"})
+    int gates;
+
+    private DistanceMatrix distances;
+    private final String[] slotNumbers = new String[LOOKUPS];
+    private final int[] columns = new int[LOOKUPS];
+    private final Gate[] lookupGates = new Gate[LOOKUPS];
+
+    @Setup
+    public void setUp() {
+        distances = Lots.distances(slots);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < LOOKUPS; i++) {
+            slotNumbers[i] = Lots.slotNumber(random.nextInt(slots));
+            columns[i] = distances.indexOf(slotNumbers[i]);
+            lookupGates[i] = Gate.values()[random.nextInt(Math.min(gates, Gate.values().length))];
+        }
+    }
+
+    @Benchmark
+    public int bySlotNumber(Cursor cursor) {
+        int i = cursor.next(LOOKUPS);
+        return distances.distance(lookupGates[i], slotNumbers[i]);
+    }
+
+    @Benchmark
+    public int byColumn(Cursor cursor) {
+        int i = cursor.next(LOOKUPS);
+        return distances.distance(lookupGates[i], columns[i]);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.parking.benchmark;
+
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.ParkingSlot;
+import com.example.parking.entity.SlotStatus;
+import com.example.parking.entity.VehicleType;
+import com.example.parking.util.DistanceMatrix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic lot layouts for the benchmarks: 100 slots per floor, vehicle types round-robin,
+ * and a random but reproducible distance from every gate to every slot.
+ */
+final class Lots {
+
+    private static final int SLOTS_PER_FLOOR = 100;
+    private static final long SEED = 42;
+
+    private Lots() {
+    }
+
+    static List<ParkingSlot> slots(int count) {
+        List<ParkingSlot> slots = new ArrayList<>(count);
+        VehicleType[] types = VehicleType.values();
+        for (int i = 0; i < count; i++) {
+            ParkingSlot slot = new ParkingSlot(slotNumber(i), i / SLOTS_PER_FLOOR + 1, types[i % types.length], SlotStatus.FREE);
+            slot.setId((long) i + 1);
+            slots.add(slot);
+        }
+        return slots;
+    }
+
+    static DistanceMatrix distances(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        DistanceMatrix.Builder builder = DistanceMatrix.builder();
+        for (int i = 0; i < count; i++) {
+            String slotNumber = slotNumber(i);
+            for (Gate gate : Gate.values()) {
+                builder.put(gate, slotNumber, random.nextInt(1, 10_000));
+            }
+        }
+        return builder.build();
+    }
+
+    static String slotNumber(int i) {
+        return "F" + (i / SLOTS_PER_FLOOR + 1) + "-" + (i % SLOTS_PER_FLOOR + 1);
+    }
+}
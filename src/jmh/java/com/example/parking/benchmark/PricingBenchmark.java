@@ -0,0 +1,99 @@
+package com.example.parking.benchmark;
+
+import com.example.parking.config.PricingProperties;
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.GateSurcharge;
+import com.example.parking.entity.PricingRule;
+import com.example.parking.entity.PricingTier;
+import com.example.parking.entity.PricingWindow;
+import com.example.parking.entity.VehicleType;
+import com.example.parking.repository.GateSurchargeRepository;
+import com.example.parking.repository.PricingRuleRepository;
+import com.example.parking.repository.PricingTierRepository;
+import com.example.parking.service.PricingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fare lookups through {@link PricingStrategy#calculateFareMinor} against compiled tables:
+ * a flat rule, or tiers in every window plus a daily cap and gate surcharges.
+ * Stays are drawn up front, from minutes to {@code maxDays} days. The repositories are mocks
+ * that only serve the rows to compile; lookups never touch them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final int STAYS = 1024;
+
+    @Param({"flat", "tiered"})
+    String rules;
+
+    @Param({"1", "30"})
+    int maxDays;
+
+    private PricingStrategy pricingStrategy;
+    private final LocalDateTime[] entryTimes = new LocalDateTime[STAYS];
+    private final long[] minutes = new long[STAYS];
+    private final Gate[] gates = new Gate[STAYS];
+
+    @Setup
+    public void setUp() {
+        List<PricingRule> ruleRows = List.of(new PricingRule(VehicleType.CAR, 15, 20));
+        List<PricingTier> tierRows = List.of();
+        List<GateSurcharge> surchargeRows = List.of();
+        if (rules.equals("tiered")) {
+            ruleRows.get(0)
+                    .setDailyCap(150);
+            tierRows = List.of(
+                    new PricingTier(VehicleType.CAR, PricingWindow.STANDARD, 2, 10),
+                    new PricingTier(VehicleType.CAR, PricingWindow.STANDARD, 8, 5),
+                    new PricingTier(VehicleType.CAR, PricingWindow.NIGHT, 0, 8),
+                    new PricingTier(VehicleType.CAR, PricingWindow.WEEKEND, 4, 12));
+            surchargeRows = List.of(new GateSurcharge(Gate.GATE_2, 5));
+        }
+        PricingRuleRepository ruleRepo = mock(PricingRuleRepository.class);
+        PricingTierRepository tierRepo = mock(PricingTierRepository.class);
+        GateSurchargeRepository surchargeRepo = mock(GateSurchargeRepository.class);
+        when(ruleRepo.findAll()).thenReturn(ruleRows);
+        when(tierRepo.findAll()).thenReturn(tierRows);
+        when(surchargeRepo.findAll()).thenReturn(surchargeRows);
+        pricingStrategy = new PricingStrategy(ruleRepo, tierRepo, surchargeRepo, new PricingProperties());
+        pricingStrategy.reloadRules();
+
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime start = LocalDateTime.of(2026, 1, 5, 0, 0);
+        for (int i = 0; i < STAYS; i++) {
+            entryTimes[i] = start.plusMinutes(random.nextInt(7 * 24 * 60));
+            minutes[i] = random.nextLong(1, maxDays * 24L * 60);
+            gates[i] = Gate.values()[random.nextInt(Gate.values().length)];
+        }
+    }
+
+    @Benchmark
+    public long calculateFare(Cursor cursor) {
+        int i = cursor.next(STAYS);
+        return pricingStrategy.calculateFareMinor(VehicleType.CAR, gates[i], entryTimes[i], minutes[i]);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.parking.benchmark;
+
+import com.example.parking.entity.ParkingSlot;
+import com.example.parking.service.SlotAllocator;
+import com.example.parking.util.DistanceMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full rebuild of the allocation index from a list of slots, as done at startup and by
+ * {@code POST /api/admin/slots/rebuild}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SlotIndexRebuildBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    int slots;
+
+    private List<ParkingSlot> lot;
+    private SlotAllocator allocator;
+
+    @Setup
+    public void setUp() {
+        lot = Lots.slots(slots);
+        DistanceMatrix distances = Lots.distances(slots);
+        allocator = new SlotAllocator(distances);
+    }
+
+    @Benchmark
+    public SlotAllocator rebuild() {
+        allocator.rebuild(() -> lot);
+        return allocator;
+    }
+}
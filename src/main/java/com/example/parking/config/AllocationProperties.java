@@ -0,0 +1,14 @@
+package com.example.parking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.allocation")
+@Data
+public class AllocationProperties {
+
+    // Give each gate a shard of the slots nearest to it; a gate takes from other shards only when its own is full
+    private boolean sharded = false;
+}
@@ -0,0 +1,18 @@
+package com.example.parking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.availability")
+@Data
+public class AvailabilityProperties {
+
+    // How often changed counts are pushed to the availability stream
+    private Duration pushInterval = Duration.ofSeconds(1);
+    // A stream is closed after this long; boards reconnect and get a fresh snapshot
+    private Duration streamTimeout = Duration.ofMinutes(30);
+}
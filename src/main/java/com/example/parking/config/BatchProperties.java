@@ -0,0 +1,14 @@
+package com.example.parking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.batch")
+@Data
+public class BatchProperties {
+
+    // Most items one entry or exit batch may carry; a larger batch is rejected with 413
+    private int maxSize = 500;
+}
@@ -1,32 +1,85 @@
 package com.example.parking.config;
 
-import com.example.parking.util.DistanceEntry;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.parking.entity.Gate;
+import com.example.parking.util.DistanceMatrix;
+import com.example.parking.util.DistanceMatrixFile;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.file.Path;
+import java.util.Optional;
 
 @Configuration
+@Slf4j
 public class DistanceConfig {
     @Bean
-    public Map<String, Integer> distanceMap() throws Exception {
-        ObjectMapper mapper = new ObjectMapper();
-        InputStream is = new ClassPathResource("data/parking_distances.json").getInputStream();
+    public DistanceMatrix distanceMatrix(DistanceProperties properties, ResourceLoader resourceLoader) throws IOException {
+        Resource source = resourceLoader.getResource(properties.getSource());
+        if (!StringUtils.hasText(properties.getCacheFile())) {
+            return parse(source);
+        }
 
-        List<DistanceEntry> entries = mapper.readValue(is, new TypeReference<>() {
-        });
-        Map<String, Integer> distanceMap = new HashMap<>();
-        for (DistanceEntry entry : entries) {
-            String key = entry.getGateNumber() + "_" + entry.getSlotNumber();
-            distanceMap.put(key, entry.getDistance());
+        // Reuse the compiled sidecar while it still matches the source
+        Path cacheFile = Path.of(properties.getCacheFile());
+        long sourceLength = source.contentLength();
+        long sourceLastModified = source.lastModified();
+        try {
+            Optional<DistanceMatrix> cached = DistanceMatrixFile.map(cacheFile, sourceLength, sourceLastModified, properties.isVerifyCache());
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable distance cache {}", cacheFile, e);
         }
 
-        return distanceMap;
+        DistanceMatrix matrix = parse(source);
+        try {
+            DistanceMatrixFile.write(matrix, cacheFile, sourceLength, sourceLastModified);
+        } catch (IOException e) {
+            log.warn("Could not write distance cache {}", cacheFile, e);
+        }
+        return matrix;
+    }
+
+    /**
+     * Streams the JSON array entry by entry straight into the matrix, without an intermediate list.
+     */
+    private DistanceMatrix parse(Resource source) throws IOException {
+        DistanceMatrix.Builder builder = DistanceMatrix.builder();
+        try (InputStream is = source.getInputStream();
+             JsonParser parser = new JsonFactory().createParser(is)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalStateException("Expected a JSON array in " + source.getDescription());
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String gateNumber = null;
+                String slotNumber = null;
+                int distance = 0;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "gateNumber" -> gateNumber = parser.getText();
+                        case "slotNumber" -> slotNumber = parser.getText();
+                        case "distance" -> distance = parser.getIntValue();
+                        default -> parser.skipChildren();
+                    }
+                }
+                if (gateNumber == null || slotNumber == null) {
+                    throw new IllegalStateException("Distance entry without gateNumber/slotNumber at " + parser.getCurrentLocation());
+                }
+                builder.put(Gate.valueOf(gateNumber), slotNumber, distance);
+            }
+        }
+        return builder.build();
     }
 }
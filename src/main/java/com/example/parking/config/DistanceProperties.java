@@ -0,0 +1,18 @@
+package com.example.parking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.distances")
+@Data
+public class DistanceProperties {
+
+    // Layout file with the gate -> slot distances
+    private String source = "classpath:data/parking_distances.json";
+    // Optional compiled sidecar; when set, later boots memory-map it instead of parsing the source
+    private String cacheFile;
+    // Also checks the sidecar body's CRC32 on boot, reading the whole file; its header is always checked
+    private boolean verifyCache = false;
+}
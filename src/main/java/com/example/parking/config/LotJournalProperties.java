@@ -0,0 +1,24 @@
+package com.example.parking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.lot-journal")
+@Data
+public class LotJournalProperties {
+
+    // When on, slot state is journaled and restored from snapshot + journal tail at startup
+    private boolean enabled = false;
+    // Holds the journal segments and snapshots
+    private String directory = "lot-journal";
+    // Size of one memory-mapped journal segment
+    private int segmentBytes = 8 * 1024 * 1024;
+    // Events between two snapshots; bounds how much is replayed at startup
+    private int snapshotEvery = 10_000;
+    // How often journaled events are flushed to disk
+    private Duration forceInterval = Duration.ofMillis(200);
+}
@@ -0,0 +1,24 @@
+package com.example.parking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "app.pricing")
+@Data
+public class PricingProperties {
+
+    // Billed hours starting from nightStartHour (inclusive) to nightEndHour (exclusive) use NIGHT tiers
+    private int nightStartHour = 22;
+    private int nightEndHour = 6;
+    // Billed hours starting on these days use WEEKEND tiers, which take precedence over NIGHT for that hour
+    private List<DayOfWeek> weekendDays = new ArrayList<>(List.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY));
+    // How long a fare quote (and its token) is served and honoured at checkout
+    private Duration quoteTtl = Duration.ofSeconds(60);
+}
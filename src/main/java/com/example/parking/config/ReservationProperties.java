@@ -0,0 +1,20 @@
+package com.example.parking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.reservation")
+@Data
+public class ReservationProperties {
+
+    // How long a reserved slot is held for the vehicle before it goes back to the lot
+    private Duration holdTime = Duration.ofMinutes(15);
+    // Expiry timer resolution; a hold is released at most this long after it lapsed
+    private Duration tick = Duration.ofSeconds(1);
+    // Buckets in the timer wheel; holds longer than tick * wheel-size wait out extra rounds
+    private int wheelSize = 1024;
+}
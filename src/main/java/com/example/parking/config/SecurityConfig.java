@@ -3,6 +3,7 @@ package com.example.parking.config;
 import com.example.parking.security.GoogleJwtRoleConverter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -10,6 +11,8 @@ import org.springframework.security.config.annotation.web.configurers.HeadersCon
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
 @Configuration
 @EnableMethodSecurity
 public class SecurityConfig {
@@ -20,6 +23,27 @@ public class SecurityConfig {
         this.roleConverter = roleConverter;
     }
 
+    /**
+     * Actuator endpoints, served only on the internal management port (see management.server).
+     * Path matchers, since the management port has no dispatcher servlet of the API's to resolve MVC matchers against.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain managementFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher(antMatcher("/actuator/**"))
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(auth -> auth
+                        // Scraped by Prometheus, which has no Google token
+                        .requestMatchers(antMatcher("/actuator/health"), antMatcher("/actuator/prometheus"))
+                        .permitAll()
+                        .anyRequest()
+                        .denyAll()
+                );
+
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         JwtAuthenticationConverter jwtConverter = new JwtAuthenticationConverter();
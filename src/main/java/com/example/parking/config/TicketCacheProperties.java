@@ -0,0 +1,14 @@
+package com.example.parking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.ticket-cache")
+@Data
+public class TicketCacheProperties {
+
+    // Most active tickets kept in memory; the least recently used is evicted beyond this
+    private int maxSize = 10_000;
+}
@@ -0,0 +1,30 @@
+package com.example.parking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.write-behind")
+@Data
+public class WriteBehindProperties {
+
+    // When on, entries are journaled & answered from memory; the database is written in the background
+    private boolean enabled = false;
+    // Local journal that makes write-behind entries durable
+    private String journalFile = "parking-entry.journal";
+    // Most journal records made durable by one fsync
+    private int groupCommitSize = 256;
+    // Most entries written to the database per transaction
+    private int flushBatchSize = 200;
+    // How long the writer waits to fill a batch
+    private Duration flushInterval = Duration.ofMillis(20);
+    // Attempts at a batch failing with a non-transient error before it is split to isolate bad entries
+    private int maxAttempts = 5;
+    // Entries that can never be written are appended here, one JSON line each
+    private String deadLetterFile = "parking-entry.dead-letter";
+    // How long fare & exit wait for a ticket that is still being written
+    private Duration persistTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,25 @@
+package com.example.parking.controller;
+
+import com.example.parking.service.ActiveTicketCache;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+public class AdminCacheController {
+
+    private final ActiveTicketCache activeTicketCache;
+
+    public AdminCacheController(ActiveTicketCache activeTicketCache) {
+        this.activeTicketCache = activeTicketCache;
+    }
+
+    // Size, hits, misses & evictions of the active-ticket cache
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/tickets")
+    public ActiveTicketCache.CacheStats ticketCacheStats() {
+        return activeTicketCache.stats();
+    }
+}
@@ -1,21 +1,48 @@
 package com.example.parking.controller;
 
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.GateSurcharge;
 import com.example.parking.entity.PricingRule;
+import com.example.parking.entity.PricingTier;
+import com.example.parking.entity.VehicleType;
+import com.example.parking.event.PricingRulesChangedEvent;
+import com.example.parking.exception.ParkingException;
+import com.example.parking.repository.GateSurchargeRepository;
 import com.example.parking.repository.PricingRuleRepository;
+import com.example.parking.repository.PricingTierRepository;
+import com.example.parking.service.PricingStrategy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/admin/pricing")
 public class AdminPricingController {
 
+    // Longest stay a preview prices: a year, leap day included
+    private static final long MAX_QUOTE_MINUTES = 366L * 24 * 60;
+
     private final PricingRuleRepository repo;
+    private final PricingTierRepository tierRepo;
+    private final GateSurchargeRepository surchargeRepo;
+    private final PricingStrategy pricingStrategy;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AdminPricingController(PricingRuleRepository repo) {
+    public AdminPricingController(PricingRuleRepository repo, PricingTierRepository tierRepo,
+                                  GateSurchargeRepository surchargeRepo, PricingStrategy pricingStrategy,
+                                  ApplicationEventPublisher eventPublisher) {
         this.repo = repo;
+        this.tierRepo = tierRepo;
+        this.surchargeRepo = surchargeRepo;
+        this.pricingStrategy = pricingStrategy;
+        this.eventPublisher = eventPublisher;
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -27,7 +54,106 @@ public class AdminPricingController {
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
     public ResponseEntity<PricingRule> createOrUpdate(@RequestBody PricingRule rule) {
+        if (rule.getVehicleType() == null) {
+            throw new ParkingException("Rule needs a vehicleType", 400);
+        }
+        if (rule.getRatePerHour() < 0 || rule.getFreeMinutes() < 0 || (rule.getDailyCap() != null && rule.getDailyCap() <= 0)) {
+            throw new ParkingException("Rule ratePerHour and freeMinutes must be non-negative and dailyCap positive", 400);
+        }
         // If rule exists for this vehicle type, update instead of inserting new
-        return ResponseEntity.ok(repo.save(rule));
+        PricingRule saved = repo.findByVehicleType(rule.getVehicleType())
+                .map(existing -> {
+                    existing.setFreeMinutes(rule.getFreeMinutes());
+                    existing.setRatePerHour(rule.getRatePerHour());
+                    existing.setDailyCap(rule.getDailyCap());
+                    return repo.save(existing);
+                })
+                .orElseGet(() -> repo.save(rule));
+
+        // Recompile the in-memory fare tables
+        eventPublisher.publishEvent(new PricingRulesChangedEvent());
+
+        return ResponseEntity.ok(saved);
+    }
+
+    // Tiered rates per vehicle type & window
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/tiers")
+    public List<PricingTier> getAllTiers() {
+        return tierRepo.findAll();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/tiers")
+    public ResponseEntity<PricingTier> addTier(@RequestBody PricingTier tier) {
+        if (tier.getVehicleType() == null || tier.getWindow() == null) {
+            throw new ParkingException("Tier needs a vehicleType and a window", 400);
+        }
+        if (tier.getFromHour() < 0 || tier.getFromHour() >= 24 || tier.getRatePerHour() < 0) {
+            throw new ParkingException("Tier fromHour must be within 0-23 and ratePerHour non-negative", 400);
+        }
+        // One tier per vehicle type, window & start hour: a repeated start hour replaces the rate
+        PricingTier saved;
+        try {
+            saved = tierRepo.findByVehicleTypeAndWindowAndFromHour(tier.getVehicleType(), tier.getWindow(), tier.getFromHour())
+                    .map(existing -> {
+                        existing.setRatePerHour(tier.getRatePerHour());
+                        return tierRepo.save(existing);
+                    })
+                    .orElseGet(() -> tierRepo.save(tier));
+        } catch (DataIntegrityViolationException e) {
+            throw new ParkingException("Tier was just added by another request", 409);
+        }
+        eventPublisher.publishEvent(new PricingRulesChangedEvent());
+        return ResponseEntity.ok(saved);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/tiers/{id}")
+    public ResponseEntity<Void> deleteTier(@PathVariable Long id) {
+        if (!tierRepo.existsById(id)) {
+            return ResponseEntity.notFound()
+                    .build();
+        }
+        tierRepo.deleteById(id);
+        eventPublisher.publishEvent(new PricingRulesChangedEvent());
+        return ResponseEntity.noContent()
+                .build();
+    }
+
+    // Flat surcharge per entry gate
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/surcharges")
+    public List<GateSurcharge> getAllSurcharges() {
+        return surchargeRepo.findAll();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/surcharges")
+    public ResponseEntity<GateSurcharge> setSurcharge(@RequestBody GateSurcharge surcharge) {
+        if (surcharge.getGate() == null || surcharge.getAmount() < 0) {
+            throw new ParkingException("Surcharge needs a gate and a non-negative amount", 400);
+        }
+        GateSurcharge saved = surchargeRepo.findByGate(surcharge.getGate())
+                .map(existing -> {
+                    existing.setAmount(surcharge.getAmount());
+                    return surchargeRepo.save(existing);
+                })
+                .orElseGet(() -> surchargeRepo.save(surcharge));
+        eventPublisher.publishEvent(new PricingRulesChangedEvent());
+        return ResponseEntity.ok(saved);
+    }
+
+    // Preview a fare against the compiled tables
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/quote")
+    public BigDecimal quote(@RequestParam VehicleType vehicleType,
+                            @RequestParam(required = false) Gate gate,
+                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime entryTime,
+                            @RequestParam long minutes) {
+        if (minutes < 0 || minutes > MAX_QUOTE_MINUTES) {
+            throw new ParkingException("Minutes must be between 0 and " + MAX_QUOTE_MINUTES, 400);
+        }
+        return pricingStrategy.calculateFare(vehicleType, gate, entryTime, minutes);
     }
 }
@@ -1,25 +1,39 @@
 package com.example.parking.controller;
 
+import com.example.parking.dto.SlotBulkRequest;
 import com.example.parking.entity.ParkingSlot;
 import com.example.parking.entity.SlotStatus;
+import com.example.parking.event.LotEvent;
 import com.example.parking.repository.ParkingSlotRepository;
-import com.example.parking.service.HeapManager;
+import com.example.parking.service.SlotAllocator;
+import com.example.parking.service.SlotProvisioningService;
+import com.example.parking.service.WriteBehindPipeline;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/admin/slots")
 public class AdminSlotController {
 
     private final ParkingSlotRepository repo;
-    private final HeapManager heapManager;
-
-    public AdminSlotController(ParkingSlotRepository repo, HeapManager heapManager) {
+    private final SlotAllocator slotAllocator;
+    private final SlotProvisioningService slotProvisioningService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WriteBehindPipeline writeBehind;
+
+    public AdminSlotController(ParkingSlotRepository repo, SlotAllocator slotAllocator,
+                               SlotProvisioningService slotProvisioningService, ApplicationEventPublisher eventPublisher,
+                               WriteBehindPipeline writeBehind) {
         this.repo = repo;
-        this.heapManager = heapManager;
+        this.slotAllocator = slotAllocator;
+        this.slotProvisioningService = slotProvisioningService;
+        this.eventPublisher = eventPublisher;
+        this.writeBehind = writeBehind;
     }
 
     // Get all slots
@@ -41,7 +55,8 @@ public class AdminSlotController {
         slot.setStatus(SlotStatus.FREE);
         ParkingSlot saved = repo.save(slot);
 
-        heapManager.rebuildHeaps(repo.findAll());  // keep heaps in sync
+        slotAllocator.applyChanges(List.of(saved), List.of());  // keep the allocation index in sync
+        eventPublisher.publishEvent(LotEvent.slotsChanged(List.of(saved), List.of()));
 
         return ResponseEntity.ok(saved);
     }
@@ -50,21 +65,30 @@ public class AdminSlotController {
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ParkingSlot> updateSlot(@PathVariable Long id, @RequestBody ParkingSlot updated) {
-        return repo.findById(id)
-                .map(slot -> {
-                    slot.setSlotNumber(updated.getSlotNumber());
-                    slot.setFloorNumber(updated.getFloorNumber());
-                    slot.setType(updated.getType());
-                    slot.setStatus(updated.getStatus());
-                    ParkingSlot saved = repo.save(slot);
-
-                    // Keep heaps in sync
-                    heapManager.rebuildHeaps(repo.findAll());
-
-                    return ResponseEntity.ok(saved);
-                })
-                .orElse(ResponseEntity.notFound()
-                        .build());
+        // Rejected while an entry that is not written yet holds the slot; entries keep off it until the index has the change
+        writeBehind.beginSlotChange(List.of(id));
+        boolean applied = false;
+        try {
+            Optional<ParkingSlot> found = repo.findById(id);
+            if (found.isEmpty()) {
+                return ResponseEntity.notFound()
+                        .build();
+            }
+            ParkingSlot slot = found.get();
+            slot.setSlotNumber(updated.getSlotNumber());
+            slot.setFloorNumber(updated.getFloorNumber());
+            slot.setType(updated.getType());
+            slot.setStatus(updated.getStatus());
+            ParkingSlot saved = repo.save(slot);
+
+            slotAllocator.applyChanges(List.of(saved), List.of());  // keep the allocation index in sync
+            applied = true;
+            eventPublisher.publishEvent(LotEvent.slotsChanged(List.of(saved), List.of()));
+
+            return ResponseEntity.ok(saved);
+        } finally {
+            writeBehind.endSlotChange(List.of(id), applied);
+        }
     }
 
 
@@ -72,17 +96,40 @@ public class AdminSlotController {
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteSlot(@PathVariable Long id) {
-        if (repo.existsById(id)) {
+        writeBehind.beginSlotChange(List.of(id));
+        boolean applied = false;
+        try {
+            if (!repo.existsById(id)) {
+                return ResponseEntity.notFound()
+                        .build();
+            }
             repo.deleteById(id);
 
-            // Keep heaps in sync
-            heapManager.rebuildHeaps(repo.findAll());
+            // Keep the allocation index in sync
+            slotAllocator.applyChanges(List.of(), List.of(id));
+            applied = true;
+            eventPublisher.publishEvent(LotEvent.slotsChanged(List.of(), List.of(id)));
 
             return ResponseEntity.noContent()
                     .build();
+        } finally {
+            writeBehind.endSlotChange(List.of(id), applied);
         }
-        return ResponseEntity.notFound()
-                .build();
     }
 
+    // Apply many slot changes as one incremental update
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/bulk")
+    public List<ParkingSlot> bulkProvision(@RequestBody SlotBulkRequest request) {
+        return slotProvisioningService.provision(request);
+    }
+
+    // Recovery only: rebuild the index from the database
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        slotAllocator.rebuild(() -> writeBehind.withUnflushedClaims(repo.findAll()));
+        return ResponseEntity.noContent()
+                .build();
+    }
 }
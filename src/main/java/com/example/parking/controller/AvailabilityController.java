@@ -0,0 +1,35 @@
+package com.example.parking.controller;
+
+import com.example.parking.dto.AvailabilityResponse;
+import com.example.parking.service.AvailabilityService;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/user/availability")
+public class AvailabilityController {
+
+    private final AvailabilityService availabilityService;
+
+    public AvailabilityController(AvailabilityService availabilityService) {
+        this.availabilityService = availabilityService;
+    }
+
+    // Free & occupied counts per floor, vehicle type and gate
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    @GetMapping
+    public AvailabilityResponse availability() {
+        return availabilityService.current();
+    }
+
+    // Server-Sent Events: a snapshot, then deltas of the rows that changed
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return availabilityService.subscribe();
+    }
+}
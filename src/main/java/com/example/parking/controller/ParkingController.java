@@ -1,12 +1,19 @@
 package com.example.parking.controller;
 
+import com.example.parking.config.BatchProperties;
 import com.example.parking.dto.*;
+import com.example.parking.exception.ParkingException;
 import com.example.parking.service.ParkingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/user/parking")
 public class ParkingController {
@@ -14,6 +21,9 @@ public class ParkingController {
     @Autowired
     private ParkingService parkingService;
 
+    @Autowired
+    private BatchProperties batchProperties;
+
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
     @PostMapping("/entry")
     public ResponseEntity<TicketResponse> entry(@RequestBody EntryRequest req) {
@@ -21,11 +31,24 @@ public class ParkingController {
         return ResponseEntity.ok(ticketResponse);
     }
 
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    @PostMapping("/entry/batch")
+    public ResponseEntity<List<BatchItemResponse<TicketResponse>>> entryBatch(@RequestBody List<EntryRequest> requests) {
+        checkBatchSize(requests);
+        return ResponseEntity.ok(parkingService.enterVehicles(requests));
+    }
+
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
     @GetMapping("/fare/{ticketId}")
     public ResponseEntity<FareResponse> calculateFare(@PathVariable Long ticketId) {
         FareResponse response = parkingService.calculateFare(ticketId);
-        return ResponseEntity.ok(response);
+        // The quote holds until validUntil, so the kiosk may reuse it until then
+        long maxAgeSeconds = Math.max(0, Duration.between(LocalDateTime.now(), response.getValidUntil())
+                .getSeconds());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds))
+                        .cachePrivate())
+                .body(response);
     }
 
 
@@ -35,4 +58,19 @@ public class ParkingController {
         ReceiptResponse receiptResponse = parkingService.exitVehicle(exitRequest);
         return ResponseEntity.ok(receiptResponse);
     }
+
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    @PostMapping("/exit/batch")
+    public ResponseEntity<List<BatchItemResponse<ReceiptResponse>>> exitBatch(@RequestBody List<ExitRequest> requests) {
+        checkBatchSize(requests);
+        return ResponseEntity.ok(parkingService.exitVehicles(requests));
+    }
+
+    // A batch is one transaction holding its slots and rows, so its size is bounded
+    private void checkBatchSize(List<?> requests) {
+        if (requests.size() > batchProperties.getMaxSize()) {
+            throw new ParkingException("Batch of " + requests.size() + " items exceeds the limit of "
+                    + batchProperties.getMaxSize(), 413);
+        }
+    }
 }
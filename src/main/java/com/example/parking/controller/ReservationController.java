@@ -0,0 +1,39 @@
+package com.example.parking.controller;
+
+import com.example.parking.dto.ReservationRequest;
+import com.example.parking.dto.ReservationResponse;
+import com.example.parking.service.ParkingService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/user/reservations")
+public class ReservationController {
+
+    private final ParkingService parkingService;
+
+    public ReservationController(ParkingService parkingService) {
+        this.parkingService = parkingService;
+    }
+
+    // Holds the nearest free slot; enter with the reservationId before heldUntil
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    @PostMapping
+    public ResponseEntity<ReservationResponse> reserve(@RequestBody ReservationRequest request) {
+        return ResponseEntity.ok(parkingService.reserve(request));
+    }
+
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    @DeleteMapping("/{reservationId}")
+    public ResponseEntity<Void> cancel(@PathVariable Long reservationId) {
+        parkingService.cancelReservation(reservationId);
+        return ResponseEntity.noContent()
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.parking.dto;
+
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.VehicleType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Everything the fare and exit paths need about an active ticket, read in one query.
+ *
+ * @param paymentId payment row left by an earlier checkout attempt, usually null
+ */
+public record ActiveTicket(Long ticketId, String plateNo, VehicleType vehicleType, Long slotId, String slotNumber,
+                           Gate entryGate, LocalDateTime entryTime, Long paymentId) {
+}
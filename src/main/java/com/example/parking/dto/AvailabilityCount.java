@@ -0,0 +1,22 @@
+package com.example.parking.dto;
+
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.VehicleType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One row of the availability board: a floor & vehicle type, a vehicle type lot-wide, or a gate.
+ * Gate rows only carry {@code occupied}: the vehicles inside that entered through the gate.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AvailabilityCount(Integer floor, VehicleType vehicleType, Gate gate,
+                                Integer total, Integer free, int occupied) {
+
+    public static AvailabilityCount slots(Integer floor, VehicleType vehicleType, int total, int free) {
+        return new AvailabilityCount(floor, vehicleType, null, total, free, total - free);
+    }
+
+    public static AvailabilityCount gate(Gate gate, int occupied) {
+        return new AvailabilityCount(null, null, gate, null, null, occupied);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.parking.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Free & occupied counts. On the stream, a delta carries only the rows that changed since
+ * the previous event; a row whose floor or type went away is sent with zero counts.
+ */
+@Data
+@NoArgsConstructor
+public class AvailabilityResponse {
+    private LocalDateTime asOf;
+    private List<AvailabilityCount> floors = new ArrayList<>();
+    private List<AvailabilityCount> vehicleTypes = new ArrayList<>();
+    private List<AvailabilityCount> gates = new ArrayList<>();
+}
@@ -0,0 +1,26 @@
+package com.example.parking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a batch request; a failed item carries its error instead of a result.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResponse<T> {
+    private int index;
+    private int status;
+    private T result;
+    private String error;
+
+    public static <T> BatchItemResponse<T> ok(int index, T result) {
+        return new BatchItemResponse<>(index, 200, result, null);
+    }
+
+    public static <T> BatchItemResponse<T> failed(int index, int status, String error) {
+        return new BatchItemResponse<>(index, status, null, error);
+    }
+}
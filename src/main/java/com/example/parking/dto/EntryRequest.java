@@ -11,4 +11,6 @@ public class EntryRequest {
     private VehicleType vehicleType;
     private String entryGate;
     private String ownerName;
+    // Optional: enter into the slot held by this reservation instead of allocating one
+    private Long reservationId;
 }
@@ -11,4 +11,6 @@ public class ExitRequest {
     private Long ticketId;
     private String paymentMethod;
     private BigDecimal amount;
+    // Optional token from the fare quote; without a valid one the fare is computed at checkout
+    private String quoteToken;
 }
@@ -4,6 +4,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
@@ -12,4 +13,7 @@ public class FareResponse {
     private String plateNo;
     private long durationMinutes;
     private BigDecimal amount;
+    // Present at checkout to pay the quoted amount while the quote is valid
+    private String quoteToken;
+    private LocalDateTime validUntil;
 }
\ No newline at end of file
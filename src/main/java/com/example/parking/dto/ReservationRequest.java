@@ -0,0 +1,14 @@
+package com.example.parking.dto;
+
+import com.example.parking.entity.VehicleType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ReservationRequest {
+    private String plateNo;
+    private VehicleType vehicleType;
+    // The slot is picked nearest to this gate
+    private String gate;
+}
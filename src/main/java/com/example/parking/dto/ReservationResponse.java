@@ -0,0 +1,19 @@
+package com.example.parking.dto;
+
+import com.example.parking.entity.VehicleType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationResponse {
+    private Long reservationId;
+    private String plateNo;
+    private VehicleType vehicleType;
+    private String slotNumber;
+    private LocalDateTime heldUntil;
+}
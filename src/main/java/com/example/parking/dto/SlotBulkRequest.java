@@ -0,0 +1,19 @@
+package com.example.parking.dto;
+
+import com.example.parking.entity.ParkingSlot;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Slot changes applied together: slots without an id are created, slots with an id are
+ * updated, and {@code deletes} lists the ids of slots to remove.
+ */
+@Data
+@NoArgsConstructor
+public class SlotBulkRequest {
+    private List<ParkingSlot> upserts = new ArrayList<>();
+    private List<Long> deletes = new ArrayList<>();
+}
@@ -0,0 +1,31 @@
+package com.example.parking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Flat amount added to every ticket issued at a gate.
+ */
+@Entity
+@Table(name = "gate_surcharge")
+@Data
+@NoArgsConstructor
+public class GateSurcharge {
+
+    public GateSurcharge(Gate gate, int amount) {
+        this.gate = gate;
+        this.amount = amount;
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "gate_surcharge_seq")
+    @SequenceGenerator(name = "gate_surcharge_seq", sequenceName = "gate_surcharge_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, unique = true)
+    private Gate gate;
+
+    private int amount;          // ₹ per ticket
+}
@@ -21,7 +21,8 @@ public class ParkingSlot {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parking_slot_seq")
+    @SequenceGenerator(name = "parking_slot_seq", sequenceName = "parking_slot_seq", allocationSize = 50)
     private Long id;
 
     private String slotNumber;
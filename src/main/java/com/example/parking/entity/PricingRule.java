@@ -17,7 +17,8 @@ public class PricingRule {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pricing_rule_seq")
+    @SequenceGenerator(name = "pricing_rule_seq", sequenceName = "pricing_rule_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -25,5 +26,6 @@ public class PricingRule {
     private VehicleType vehicleType;
 
     private int freeMinutes;     // e.g., 120 for 2 hours free
-    private int ratePerHour;     // ₹ per hour after free minutes
+    private int ratePerHour;     // ₹ per hour after free minutes, unless tiers are defined
+    private Integer dailyCap;    // ₹ per 24 billed hours, null = uncapped
 }
@@ -0,0 +1,41 @@
+package com.example.parking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Hourly rate that applies from a given billed hour onwards, within one pricing window.
+ */
+@Entity
+@Table(
+        name = "pricing_tier",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"vehicleType", "pricing_window", "fromHour"})
+)
+@Data
+@NoArgsConstructor
+public class PricingTier {
+
+    public PricingTier(VehicleType vehicleType, PricingWindow window, int fromHour, int ratePerHour) {
+        this.vehicleType = vehicleType;
+        this.window = window;
+        this.fromHour = fromHour;
+        this.ratePerHour = ratePerHour;
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pricing_tier_seq")
+    @SequenceGenerator(name = "pricing_tier_seq", sequenceName = "pricing_tier_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private VehicleType vehicleType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "pricing_window", nullable = false)
+    private PricingWindow window;
+
+    private int fromHour;        // 0 = first billed hour of each day
+    private int ratePerHour;     // ₹ per hour from fromHour onwards
+}
@@ -0,0 +1,5 @@
+package com.example.parking.entity;
+
+public enum PricingWindow {
+    STANDARD, NIGHT, WEEKEND
+}
@@ -0,0 +1,37 @@
+package com.example.parking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reservation")
+@Data
+@NoArgsConstructor
+public class Reservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
+    @SequenceGenerator(name = "reservation_seq", sequenceName = "reservation_seq", allocationSize = 50)
+    private Long id;
+
+    private String plateNo;
+
+    @Enumerated(EnumType.STRING)
+    private VehicleType vehicleType;
+
+    // Gate the slot was picked for; the vehicle may still enter through any gate
+    @Enumerated(EnumType.STRING)
+    private Gate gate;
+
+    // Held in status RESERVED until the reservation is redeemed, cancelled or expires
+    @ManyToOne
+    private ParkingSlot slot;
+
+    private LocalDateTime heldUntil;
+
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status;
+}
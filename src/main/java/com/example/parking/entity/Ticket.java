@@ -8,14 +8,18 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "ticket")
+@Table(
+        name = "ticket",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ticket_active_plate", columnNames = {"activePlate"})
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Ticket {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ticket_seq")
+    @SequenceGenerator(name = "ticket_seq", sequenceName = "ticket_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -24,10 +28,16 @@ public class Ticket {
     @ManyToOne
     private ParkingSlot slot;
 
+    @Enumerated(EnumType.STRING)
+    private Gate entryGate;
+
     private LocalDateTime entryTime;
 
     private LocalDateTime exitTime;
 
     @Enumerated(EnumType.STRING)
     private TicketStatus status;
+
+    // Plate while the ticket is ACTIVE, null once closed; unique, so at most one active ticket per plate
+    private String activePlate;
 }
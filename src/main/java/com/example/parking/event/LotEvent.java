@@ -0,0 +1,47 @@
+package com.example.parking.event;
+
+import com.example.parking.entity.ParkingSlot;
+import com.example.parking.entity.SlotStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A change to the lot's slot state: a vehicle took or left a slot, an answered entry was
+ * given up, a slot was held for or released by a reservation, or slots were provisioned.
+ * Published inside the writing transaction and journaled once it commits.
+ * <p>
+ * {@code slotStatus} is only set on {@code ENTRY_VOIDED}: the status the slot is left in,
+ * or null if the slot no longer exists.
+ */
+public record LotEvent(Type type, Long ticketId, String plateNo, Long slotId,
+                       List<ParkingSlot> slots, List<Long> removedSlotIds, SlotStatus slotStatus) {
+
+    public enum Type {
+        ENTRY, ENTRY_VOIDED, EXIT, HOLD, HOLD_RELEASED, SLOT_CHANGED
+    }
+
+    public static LotEvent entry(Long ticketId, String plateNo, Long slotId) {
+        return new LotEvent(Type.ENTRY, ticketId, plateNo, slotId, List.of(), List.of(), null);
+    }
+
+    public static LotEvent entryVoided(Long ticketId, String plateNo, Long slotId, SlotStatus slotStatus) {
+        return new LotEvent(Type.ENTRY_VOIDED, ticketId, plateNo, slotId, List.of(), List.of(), slotStatus);
+    }
+
+    public static LotEvent exit(Long ticketId, String plateNo, Long slotId) {
+        return new LotEvent(Type.EXIT, ticketId, plateNo, slotId, List.of(), List.of(), null);
+    }
+
+    public static LotEvent hold(Long slotId) {
+        return new LotEvent(Type.HOLD, null, null, slotId, List.of(), List.of(), null);
+    }
+
+    public static LotEvent holdReleased(Long slotId) {
+        return new LotEvent(Type.HOLD_RELEASED, null, null, slotId, List.of(), List.of(), null);
+    }
+
+    public static LotEvent slotsChanged(Collection<ParkingSlot> upserts, Collection<Long> removedIds) {
+        return new LotEvent(Type.SLOT_CHANGED, null, null, null, List.copyOf(upserts), List.copyOf(removedIds), null);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.parking.event;
+
+/**
+ * Published after pricing rules are written, so cached fare snapshots get rebuilt.
+ */
+public class PricingRulesChangedEvent {
+}
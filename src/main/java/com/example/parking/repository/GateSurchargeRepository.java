@@ -0,0 +1,13 @@
+package com.example.parking.repository;
+
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.GateSurcharge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface GateSurchargeRepository extends JpaRepository<GateSurcharge, Long> {
+    Optional<GateSurcharge> findByGate(Gate gate);
+}
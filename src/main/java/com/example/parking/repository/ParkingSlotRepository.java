@@ -1,14 +1,18 @@
 package com.example.parking.repository;
 
 import com.example.parking.entity.ParkingSlot;
+import com.example.parking.entity.SlotStatus;
 import com.example.parking.entity.VehicleType;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import jakarta.persistence.LockModeType;
 import org.springframework.stereotype.Repository;
 
@@ -20,4 +24,15 @@ public interface ParkingSlotRepository extends JpaRepository<ParkingSlot, Long>
     List<ParkingSlot> findAndLockFirstFreeSlotByType(VehicleType type);*/
 
     Optional<ParkingSlot> findBySlotNumber(String slotNumber);
+
+    List<ParkingSlot> findBySlotNumberIn(Collection<String> slotNumbers);
+
+    /**
+     * Moves a slot from {@code expected} to {@code status} in one conditional update, bumping its version.
+     *
+     * @return 1 if the slot was in the expected status, otherwise 0
+     */
+    @Modifying
+    @Query("update ParkingSlot s set s.status = :status, s.version = s.version + 1 where s.id = :id and s.status = :expected")
+    int compareAndSetStatus(@Param("id") Long id, @Param("expected") SlotStatus expected, @Param("status") SlotStatus status);
 }
@@ -0,0 +1,15 @@
+package com.example.parking.repository;
+
+import com.example.parking.entity.PricingTier;
+import com.example.parking.entity.PricingWindow;
+import com.example.parking.entity.VehicleType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PricingTierRepository extends JpaRepository<PricingTier, Long> {
+
+    Optional<PricingTier> findByVehicleTypeAndWindowAndFromHour(VehicleType vehicleType, PricingWindow window, int fromHour);
+}
@@ -0,0 +1,28 @@
+package com.example.parking.repository;
+
+import com.example.parking.entity.Reservation;
+import com.example.parking.entity.ReservationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+    @Query("select r from Reservation r join fetch r.slot where r.status = :status")
+    List<Reservation> findWithSlotByStatus(@Param("status") ReservationStatus status);
+
+    /**
+     * Moves a reservation from {@code expected} to {@code status} in one conditional update.
+     *
+     * @return 1 if the reservation was in the expected status, otherwise 0
+     */
+    @Modifying
+    @Query("update Reservation r set r.status = :status where r.id = :id and r.status = :expected")
+    int compareAndSetStatus(@Param("id") Long id, @Param("expected") ReservationStatus expected,
+                            @Param("status") ReservationStatus status);
+}
@@ -1,13 +1,45 @@
 package com.example.parking.repository;
 
+import com.example.parking.dto.ActiveTicket;
 import com.example.parking.entity.Ticket;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
-    @Query("select t from Ticket t where t.vehicle.plateNo = ?1 and t.status = 'ACTIVE'")
-    Optional<Ticket> findActiveTicketByPlate(String plateNo);
+    @Query("select t.activePlate from Ticket t where t.activePlate is not null")
+    List<String> findActivePlates();
+
+    /**
+     * Active tickets with their vehicle, slot and any payment row, in one joined query.
+     */
+    @Query("select new com.example.parking.dto.ActiveTicket(t.id, v.plateNo, v.type, s.id, s.slotNumber, t.entryGate, t.entryTime, p.id) "
+            + "from Ticket t join t.vehicle v join t.slot s left join Payment p on p.ticket = t "
+            + "where t.id in :ids and t.status = com.example.parking.entity.TicketStatus.ACTIVE")
+    List<ActiveTicket> findActive(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Active tickets per entry gate, as {@code [Gate, Long]} rows.
+     */
+    @Query("select t.entryGate, count(t) from Ticket t where t.status = com.example.parking.entity.TicketStatus.ACTIVE group by t.entryGate")
+    List<Object[]> countActiveByEntryGate();
+
+    @Query("select t.id from Ticket t where t.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Closes a ticket in one conditional update.
+     *
+     * @return 1 if the ticket was still active, otherwise 0
+     */
+    @Modifying
+    @Query("update Ticket t set t.status = com.example.parking.entity.TicketStatus.CLOSED, t.exitTime = :exitTime, t.activePlate = null "
+            + "where t.id = :id and t.status = com.example.parking.entity.TicketStatus.ACTIVE")
+    int closeIfActive(@Param("id") Long id, @Param("exitTime") LocalDateTime exitTime);
 }
@@ -1,6 +1,8 @@
 package com.example.parking.repository;
 
 import com.example.parking.entity.Vehicle;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -8,4 +10,6 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     Optional<Vehicle> findByPlateNo(String plateNo);
+
+    List<Vehicle> findByPlateNoIn(Collection<String> plateNos);
 }
@@ -0,0 +1,43 @@
+package com.example.parking.service;
+
+import com.example.parking.repository.TicketRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plates of the vehicles currently inside, so the duplicate-entry check never touches the database.
+ * Seeded from the active tickets on startup; the unique {@code active_plate} column stays the backstop.
+ */
+@Service
+public class ActivePlateRegistry {
+
+    private final TicketRepository ticketRepository;
+
+    private final Set<String> plates = ConcurrentHashMap.newKeySet();
+
+    public ActivePlateRegistry(TicketRepository ticketRepository) {
+        this.ticketRepository = ticketRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        plates.addAll(ticketRepository.findActivePlates());
+    }
+
+    /**
+     * Marks the plate as inside.
+     *
+     * @return false if the vehicle is already inside
+     */
+    public boolean enter(String plateNo) {
+        return plates.add(plateNo);
+    }
+
+    public void exit(String plateNo) {
+        plates.remove(plateNo);
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.parking.service;
+
+import com.example.parking.config.TicketCacheProperties;
+import com.example.parking.dto.ActiveTicket;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-process cache of active tickets for the fare and exit paths.
+ * Filled when an entry commits or on a read-through miss, evicted when the exit commits;
+ * beyond {@code maxSize} the least recently used ticket is dropped.
+ * <p>
+ * Tickets are spread over lock stripes by id, each its own LRU of an equal share of
+ * {@code maxSize}, so concurrent lookups rarely wait on each other. Each stripe counts its
+ * evictions: a read-through fill passes the count from before its query and is dropped if
+ * the stripe evicted anything since, so an exit that committed meanwhile is not undone.
+ */
+@Service
+public class ActiveTicketCache {
+
+    // Stripes hold at least this many tickets, so small caches keep an exact LRU
+    private static final int MIN_STRIPE_SIZE = 64;
+    private static final int MAX_STRIPES = 16;
+
+    private final int maxSize;
+    private final Stripe[] stripes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ActiveTicketCache(TicketCacheProperties properties) {
+        this.maxSize = properties.getMaxSize();
+        int count = Math.min(MAX_STRIPES, Math.max(1, Integer.highestOneBit(maxSize / MIN_STRIPE_SIZE)));
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe((maxSize + count - 1) / count);
+        }
+    }
+
+    /**
+     * The cached ticket, or null on a miss.
+     */
+    public ActiveTicket get(Long ticketId) {
+        Stripe stripe = stripe(ticketId);
+        ActiveTicket ticket;
+        stripe.lock.lock();
+        try {
+            ticket = stripe.tickets.get(ticketId);
+        } finally {
+            stripe.lock.unlock();
+        }
+        (ticket != null ? hits : misses).increment();
+        return ticket;
+    }
+
+    /**
+     * The cached tickets among {@code ticketIds}; every absent id counts as a miss.
+     */
+    public Map<Long, ActiveTicket> getAll(Collection<Long> ticketIds) {
+        Map<Long, ActiveTicket> found = new HashMap<>();
+        for (Long ticketId : ticketIds) {
+            Stripe stripe = stripe(ticketId);
+            stripe.lock.lock();
+            try {
+                ActiveTicket ticket = stripe.tickets.get(ticketId);
+                if (ticket != null) {
+                    found.put(ticketId, ticket);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        hits.add(found.size());
+        misses.add(ticketIds.size() - found.size());
+        return found;
+    }
+
+    /**
+     * Caches a ticket known to be active now, e.g. once its entry has committed.
+     */
+    public void put(ActiveTicket ticket) {
+        Stripe stripe = stripe(ticket.ticketId());
+        stripe.lock.lock();
+        try {
+            stripe.tickets.put(ticket.ticketId(), ticket);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Stamp to take before reading a ticket from the database, for {@link #putIfNotEvictedSince}.
+     */
+    public long stamp(Long ticketId) {
+        Stripe stripe = stripe(ticketId);
+        stripe.lock.lock();
+        try {
+            return stripe.evicted;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Caches a ticket read from the database, unless a ticket of its stripe was evicted after
+     * {@code stamp} was taken; the read may then predate that ticket's exit.
+     *
+     * @return false if the ticket was not cached
+     */
+    public boolean putIfNotEvictedSince(ActiveTicket ticket, long stamp) {
+        Stripe stripe = stripe(ticket.ticketId());
+        stripe.lock.lock();
+        try {
+            if (stripe.evicted != stamp) {
+                return false;
+            }
+            stripe.tickets.put(ticket.ticketId(), ticket);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Whether a ticket of the stripe was evicted after {@code stamp} was taken.
+     */
+    public boolean evictedSince(Long ticketId, long stamp) {
+        return stamp(ticketId) != stamp;
+    }
+
+    public void evict(Long ticketId) {
+        Stripe stripe = stripe(ticketId);
+        stripe.lock.lock();
+        try {
+            stripe.tickets.remove(ticketId);
+            stripe.evicted++;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.tickets.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return new CacheStats(size, maxSize, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private Stripe stripe(Long ticketId) {
+        int hash = Objects.hashCode(ticketId);
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Access-ordered, so the eldest entry is the least recently used; guarded by lock
+        private final LinkedHashMap<Long, ActiveTicket> tickets;
+        // Evictions so far, the stamp of read-through fills; guarded by lock
+        private long evicted;
+
+        Stripe(int maxSize) {
+            this.tickets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, ActiveTicket> eldest) {
+                    if (size() > maxSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    public record CacheStats(int size, int maxSize, long hits, long misses, long evictions) {
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.parking.service;
+
+import com.example.parking.config.AvailabilityProperties;
+import com.example.parking.dto.AvailabilityCount;
+import com.example.parking.dto.AvailabilityResponse;
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.VehicleType;
+import com.example.parking.repository.TicketRepository;
+import com.example.parking.util.SlotIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Free & occupied counts for display boards, answered from in-memory counters.
+ * <p>
+ * Slot counts per floor & vehicle type are the striped free counters of the allocation
+ * index, which change with every claim and release. Vehicles inside per entry gate are
+ * counted here when an entry or exit commits. Nothing is read from the database after startup.
+ * <p>
+ * Stream subscribers get the last pushed state, then every {@code pushInterval} a delta with
+ * the rows that changed. All pushes run on one thread, so every subscriber sees the same
+ * sequence of states.
+ */
+@Service
+@Slf4j
+public class AvailabilityService {
+
+    private final SlotAllocator slotAllocator;
+    private final TicketRepository ticketRepository;
+    private final AvailabilityProperties properties;
+
+    // [gate ordinal] -> vehicles inside that entered through the gate
+    private final LongAdder[] insideByGate = new LongAdder[Gate.values().length];
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService pusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "availability-push");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Rows as of the last push; only touched on the pusher thread
+    private Map<RowKey, AvailabilityCount> lastPushed = Map.of();
+
+    public AvailabilityService(SlotAllocator slotAllocator, TicketRepository ticketRepository, AvailabilityProperties properties) {
+        this.slotAllocator = slotAllocator;
+        this.ticketRepository = ticketRepository;
+        this.properties = properties;
+        for (int g = 0; g < insideByGate.length; g++) {
+            insideByGate[g] = new LongAdder();
+        }
+    }
+
+    /**
+     * Seeds the gate counts from the active tickets and starts pushing deltas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (Object[] row : ticketRepository.countActiveByEntryGate()) {
+            if (row[0] != null) {
+                insideByGate[((Gate) row[0]).ordinal()].add((Long) row[1]);
+            }
+        }
+        long intervalMillis = properties.getPushInterval()
+                .toMillis();
+        pusher.execute(() -> lastPushed = rows());
+        pusher.scheduleWithFixedDelay(this::push, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void entered(Gate gate) {
+        insideByGate[gate.ordinal()].increment();
+    }
+
+    public void exited(Gate gate) {
+        insideByGate[gate.ordinal()].decrement();
+    }
+
+    public AvailabilityResponse current() {
+        return toResponse(rows().values());
+    }
+
+    /**
+     * Opens a stream: a {@code snapshot} event now, then {@code delta} events as counts change.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeout()
+                .toMillis());
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(emitter));
+
+        // On the pusher thread, so no delta is pushed between the snapshot and the subscription
+        pusher.execute(() -> {
+            if (send(emitter, "snapshot", toResponse(lastPushed.values()))) {
+                subscribers.add(emitter);
+            }
+        });
+        return emitter;
+    }
+
+    @PreDestroy
+    public void close() {
+        pusher.shutdownNow();
+        subscribers.forEach(SseEmitter::complete);
+        subscribers.clear();
+    }
+
+    private void push() {
+        try {
+            Map<RowKey, AvailabilityCount> next = rows();
+            Map<RowKey, AvailabilityCount> changed = new LinkedHashMap<>();
+            next.forEach((key, row) -> {
+                if (!row.equals(lastPushed.get(key))) {
+                    changed.put(key, row);
+                }
+            });
+            lastPushed.forEach((key, row) -> {
+                if (!next.containsKey(key)) {
+                    changed.put(key, AvailabilityCount.slots(row.floor(), row.vehicleType(), 0, 0));
+                }
+            });
+            lastPushed = next;
+
+            if (!changed.isEmpty()) {
+                AvailabilityResponse delta = toResponse(changed.values());
+                subscribers.forEach(emitter -> send(emitter, "delta", delta));
+            }
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next push carries the change
+            log.warn("Could not push availability", e);
+        }
+    }
+
+    private boolean send(SseEmitter emitter, String name, AvailabilityResponse response) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(name)
+                    .data(response));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(emitter);
+            return false;
+        }
+    }
+
+    /**
+     * Every row of the board, keyed by floor, vehicle type & gate.
+     */
+    private Map<RowKey, AvailabilityCount> rows() {
+        Map<RowKey, AvailabilityCount> rows = new LinkedHashMap<>();
+        int[] total = new int[VehicleType.values().length];
+        int[] free = new int[VehicleType.values().length];
+        for (SlotIndex.FloorCount count : slotAllocator.floorCounts()) {
+            rows.put(new RowKey(count.floor(), count.type(), null),
+                    AvailabilityCount.slots(count.floor(), count.type(), count.total(), count.free()));
+            total[count.type()
+                    .ordinal()] += count.total();
+            free[count.type()
+                    .ordinal()] += count.free();
+        }
+        for (VehicleType type : VehicleType.values()) {
+            rows.put(new RowKey(null, type, null), AvailabilityCount.slots(null, type, total[type.ordinal()], free[type.ordinal()]));
+        }
+        for (Gate gate : Gate.values()) {
+            rows.put(new RowKey(null, null, gate), AvailabilityCount.gate(gate, (int) insideByGate[gate.ordinal()].sum()));
+        }
+        return rows;
+    }
+
+    private static AvailabilityResponse toResponse(Iterable<AvailabilityCount> rows) {
+        AvailabilityResponse response = new AvailabilityResponse();
+        response.setAsOf(LocalDateTime.now());
+        for (AvailabilityCount row : rows) {
+            if (row.gate() != null) {
+                response.getGates()
+                        .add(row);
+            } else if (row.floor() != null) {
+                response.getFloors()
+                        .add(row);
+            } else {
+                response.getVehicleTypes()
+                        .add(row);
+            }
+        }
+        return response;
+    }
+
+    private record RowKey(Integer floor, VehicleType vehicleType, Gate gate) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.parking.service;
+
+import com.example.parking.config.PricingProperties;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Short-lived fare quotes per ticket, so kiosks polling the fare get the same quote back
+ * without a query. Checkout presenting an unexpired quote token pays the quoted amount.
+ */
+@Service
+public class FareQuoteCache {
+
+    // Expired quotes are swept once per this many new quotes
+    private static final int SWEEP_EVERY = 1024;
+
+    private final PricingProperties properties;
+
+    private final Map<Long, FareQuote> quotes = new ConcurrentHashMap<>();
+    private final AtomicInteger sinceSweep = new AtomicInteger();
+
+    public FareQuoteCache(PricingProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * The ticket's current quote, or null if there is none or it expired.
+     */
+    public FareQuote get(Long ticketId) {
+        FareQuote quote = quotes.get(ticketId);
+        return quote != null && quote.isValid(LocalDateTime.now()) ? quote : null;
+    }
+
+    public FareQuote put(Long ticketId, String plateNo, long durationMinutes, long amountMinor) {
+        if (sinceSweep.incrementAndGet() >= SWEEP_EVERY) {
+            sinceSweep.set(0);
+            LocalDateTime now = LocalDateTime.now();
+            quotes.values()
+                    .removeIf(quote -> !quote.isValid(now));
+        }
+        FareQuote quote = new FareQuote(UUID.randomUUID()
+                .toString(), plateNo, durationMinutes, amountMinor, LocalDateTime.now()
+                .plus(properties.getQuoteTtl()));
+        quotes.put(ticketId, quote);
+        return quote;
+    }
+
+    /**
+     * The quoted amount if {@code token} is the ticket's unexpired quote, else empty.
+     */
+    public OptionalLong redeem(Long ticketId, String token) {
+        FareQuote quote = get(ticketId);
+        if (quote == null || token == null || !quote.token()
+                .equals(token)) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(quote.amountMinor());
+    }
+
+    public void evict(Long ticketId) {
+        quotes.remove(ticketId);
+    }
+
+    public record FareQuote(String token, String plateNo, long durationMinutes, long amountMinor,
+                            LocalDateTime validUntil) {
+
+        boolean isValid(LocalDateTime now) {
+            return now.isBefore(validUntil);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.parking.service;
+
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.PricingRule;
+import com.example.parking.entity.PricingTier;
+import com.example.parking.entity.PricingWindow;
+import com.example.parking.util.Money;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Pricing rules of one vehicle type, compiled for O(log segments) quotes.
+ * <p>
+ * Each window's tiers become piecewise-linear segments over the billed hours of a day,
+ * with the fare at every segment start precomputed. Tiers restart every 24 billed hours,
+ * and each such day is capped at the daily cap. Every billed hour is priced in the window
+ * its start falls in: a day walks the runs of equal windows in the hour-of-week table, and
+ * the fare of a full day from each hour of the week is precomputed, so a quote costs at most
+ * a week of day lookups plus one partial day. The entry gate's surcharge is added to any
+ * stay that is billed at all.
+ */
+public final class FareTable {
+
+    static final int HOURS_PER_WEEK = 7 * 24;
+    private static final int HOURS_PER_DAY = 24;
+
+    private final int freeMinutes;
+    private final long dailyCapMinor;
+    private final Segments[] segments;
+    private final PricingWindow[] windowByHourOfWeek;
+    // Hours from each hour of week until the window changes, at most a week
+    private final int[] runLength;
+    // Capped fare of 24 billed hours starting at each hour of week
+    private final long[] dayFareFrom;
+    private final long[] surchargeMinor;
+
+    private FareTable(int freeMinutes, long dailyCapMinor, Segments[] segments,
+                      PricingWindow[] windowByHourOfWeek, long[] surchargeMinor) {
+        this.freeMinutes = freeMinutes;
+        this.dailyCapMinor = dailyCapMinor;
+        this.segments = segments;
+        this.windowByHourOfWeek = windowByHourOfWeek;
+        this.surchargeMinor = surchargeMinor;
+
+        this.runLength = new int[HOURS_PER_WEEK];
+        for (int hourOfWeek = 0; hourOfWeek < HOURS_PER_WEEK; hourOfWeek++) {
+            int length = 1;
+            while (length < HOURS_PER_WEEK
+                    && windowByHourOfWeek[(hourOfWeek + length) % HOURS_PER_WEEK] == windowByHourOfWeek[hourOfWeek]) {
+                length++;
+            }
+            runLength[hourOfWeek] = length;
+        }
+        this.dayFareFrom = new long[HOURS_PER_WEEK];
+        for (int hourOfWeek = 0; hourOfWeek < HOURS_PER_WEEK; hourOfWeek++) {
+            dayFareFrom[hourOfWeek] = dayFare(hourOfWeek, HOURS_PER_DAY);
+        }
+    }
+
+    /**
+     * @param tiers              tiers of this vehicle type; a window without tiers falls back to
+     *                           STANDARD, and STANDARD falls back to the rule's flat hourly rate
+     * @param windowByHourOfWeek pricing window per hour of week, Monday 00:00 first
+     * @param surchargeMinor     flat surcharge per gate ordinal
+     */
+    static FareTable compile(PricingRule rule, List<PricingTier> tiers,
+                             PricingWindow[] windowByHourOfWeek, long[] surchargeMinor) {
+        long dailyCapMinor = rule.getDailyCap() == null ? Long.MAX_VALUE : Money.ofUnits(rule.getDailyCap());
+
+        Segments standard = Segments.of(tiersFor(tiers, PricingWindow.STANDARD), rule.getRatePerHour());
+        Segments[] segments = new Segments[PricingWindow.values().length];
+        for (PricingWindow window : PricingWindow.values()) {
+            List<PricingTier> windowTiers = tiersFor(tiers, window);
+            segments[window.ordinal()] = windowTiers.isEmpty()
+                    ? standard
+                    : Segments.of(windowTiers, rule.getRatePerHour());
+        }
+        return new FareTable(rule.getFreeMinutes(), dailyCapMinor, segments, windowByHourOfWeek, surchargeMinor);
+    }
+
+    /**
+     * Fare in minor units for a stay of the given length.
+     *
+     * @param gate entry gate, or null when unknown (no surcharge)
+     */
+    public long quote(Gate gate, LocalDateTime entryTime, long minutes) {
+        if (minutes <= freeMinutes) {
+            return 0;
+        }
+        long fare = gate == null ? 0 : surchargeMinor[gate.ordinal()];
+
+        // 1. Billing starts once the free minutes are used up; each billed hour then starts a whole hour later
+        LocalDateTime billedFrom = entryTime.plusMinutes(freeMinutes);
+        int hourOfWeek = (billedFrom.getDayOfWeek()
+                .getValue() - 1) * HOURS_PER_DAY + billedFrom.getHour();
+        long hours = (minutes - freeMinutes + 59) / 60;
+        long days = hours / HOURS_PER_DAY;
+
+        // 2. Full days repeat every week
+        long weekFare = 0;
+        long remainderFare = 0;
+        for (int day = 0; day < Math.min(days, 7); day++) {
+            long dayFare = dayFareFrom[(hourOfWeek + day * HOURS_PER_DAY) % HOURS_PER_WEEK];
+            weekFare += dayFare;
+            if (day < days % 7) {
+                remainderFare += dayFare;
+            }
+        }
+        fare = Math.addExact(fare, Math.multiplyExact(days / 7, weekFare));
+        fare = Math.addExact(fare, remainderFare);
+
+        // 3. The last, partial day
+        int lastDayFrom = (int) ((hourOfWeek + days % 7 * HOURS_PER_DAY) % HOURS_PER_WEEK);
+        return Math.addExact(fare, dayFare(lastDayFrom, (int) (hours % HOURS_PER_DAY)));
+    }
+
+    /**
+     * Capped fare of the first {@code hours} billed hours of a day starting at {@code hourOfWeek},
+     * each run of equal windows priced on that window's segments.
+     */
+    private long dayFare(int hourOfWeek, int hours) {
+        long fare = 0;
+        for (int from = 0; from < hours; ) {
+            int at = (hourOfWeek + from) % HOURS_PER_WEEK;
+            int to = Math.min(hours, from + runLength[at]);
+            Segments windowSegments = segments[windowByHourOfWeek[at].ordinal()];
+            fare += windowSegments.fare(to) - windowSegments.fare(from);
+            from = to;
+        }
+        return Math.min(dailyCapMinor, fare);
+    }
+
+    private static List<PricingTier> tiersFor(List<PricingTier> tiers, PricingWindow window) {
+        return tiers.stream()
+                .filter(tier -> tier.getWindow() == window)
+                .sorted(Comparator.comparingInt(PricingTier::getFromHour))
+                .toList();
+    }
+
+    /**
+     * Piecewise-linear fare over the billed hours of one day.
+     */
+    private static final class Segments {
+        private final int[] fromHour;
+        private final long[] rateMinor;
+        // Fare for hours [0, fromHour[i])
+        private final long[] startFare;
+
+        private Segments(int[] fromHour, long[] rateMinor) {
+            this.fromHour = fromHour;
+            this.rateMinor = rateMinor;
+            this.startFare = new long[fromHour.length];
+            for (int i = 1; i < fromHour.length; i++) {
+                startFare[i] = startFare[i - 1] + (fromHour[i] - fromHour[i - 1]) * rateMinor[i - 1];
+            }
+        }
+
+        static Segments of(List<PricingTier> tiers, int flatRatePerHour) {
+            // Hours before the first tier use the flat rate; a tier from hour 0 replaces it
+            TreeMap<Integer, Long> rates = new TreeMap<>();
+            rates.put(0, Money.ofUnits(flatRatePerHour));
+            for (PricingTier tier : tiers) {
+                rates.put(tier.getFromHour(), Money.ofUnits(tier.getRatePerHour()));
+            }
+            NavigableMap<Integer, Long> daily = rates.headMap(HOURS_PER_DAY, false);
+
+            int[] fromHour = daily.keySet()
+                    .stream()
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            long[] rateMinor = daily.values()
+                    .stream()
+                    .mapToLong(Long::longValue)
+                    .toArray();
+            return new Segments(fromHour, rateMinor);
+        }
+
+        long fare(int hours) {
+            int i = Arrays.binarySearch(fromHour, hours);
+            if (i < 0) {
+                i = -i - 2;
+            }
+            return startFare[i] + (hours - fromHour[i]) * rateMinor[i];
+        }
+    }
+}
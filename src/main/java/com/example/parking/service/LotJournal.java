@@ -0,0 +1,323 @@
+package com.example.parking.service;
+
+import com.example.parking.config.LotJournalProperties;
+import com.example.parking.entity.ParkingSlot;
+import com.example.parking.entity.SlotStatus;
+import com.example.parking.event.LotEvent;
+import com.example.parking.util.SegmentedLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Event-sourced copy of the lot's slot state.
+ * <p>
+ * Every committed {@link LotEvent} is appended to a memory-mapped {@link SegmentedLog} and
+ * applied to an in-memory slot map. Every {@code snapshotEvery} events a background thread
+ * rolls its copy of the last snapshot forward by replaying the log up to that point, writes
+ * it, and drops the segments it covers; the committing thread only notes the sequence number. At startup the latest snapshot is
+ * loaded and only the events after it are replayed, so recovery is bounded by recent
+ * traffic rather than by ticket history.
+ * <p>
+ * Tickets and payments stay in the database; restoring slot state from the journal only
+ * makes sense with a datasource that survives a restart.
+ */
+@Service
+@Slf4j
+public class LotJournal {
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".json";
+
+    private final LotJournalProperties properties;
+    private final ObjectMapper objectMapper;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Slot id -> slot state as of the last journaled event; guarded by lock
+    private final Map<Long, ParkingSlot> slots = new HashMap<>();
+    private SegmentedLog eventLog;
+    private long sinceSnapshot;
+    private ScheduledExecutorService background;
+
+    // Slot state as of snapshotSeq, rolled forward by the background thread only
+    private final Map<Long, ParkingSlot> snapshotSlots = new HashMap<>();
+    private long snapshotSeq;
+
+    public LotJournal(LotJournalProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Returns the slots to build the allocation index from: the latest snapshot plus the
+     * journal tail, or the database when the journal is off, empty, or behind it.
+     *
+     * @param databaseAhead the database changed without the journal seeing it (fresh seed, replayed write-behind)
+     */
+    public List<ParkingSlot> recover(Supplier<List<ParkingSlot>> database, boolean databaseAhead) {
+        if (!properties.isEnabled()) {
+            return database.get();
+        }
+        lock.lock();
+        try {
+            if (eventLog != null) {
+                throw new IllegalStateException("Lot journal is already recovered");
+            }
+            Path directory = Path.of(properties.getDirectory());
+            eventLog = new SegmentedLog(directory, properties.getSegmentBytes());
+            slots.clear();
+
+            Optional<Snapshot> snapshot = databaseAhead ? Optional.empty() : latestSnapshot(directory);
+            if (snapshot.isPresent()) {
+                // 1. Load the snapshot & replay what happened after it
+                snapshot.get()
+                        .slots()
+                        .forEach(slot -> {
+                            slots.put(slot.getId(), slot);
+                            snapshotSlots.put(slot.getId(), copy(slot));
+                        });
+                snapshotSeq = snapshot.get()
+                        .seq();
+                long[] replayed = {0};
+                eventLog.replay(snapshot.get()
+                        .seq(), (bytes, seq) -> {
+                    apply(slots, readEvent(bytes));
+                    replayed[0]++;
+                });
+                sinceSnapshot = replayed[0];
+                log.info("Restored {} slots from snapshot {} and {} journaled events",
+                        slots.size(), snapshot.get()
+                                .seq(), replayed[0]);
+            } else {
+                // 2. Start over from the database
+                database.get()
+                        .forEach(slot -> {
+                            slots.put(slot.getId(), copy(slot));
+                            snapshotSlots.put(slot.getId(), copy(slot));
+                        });
+                snapshotSeq = eventLog.lastSeq();
+                writeSnapshot(new Snapshot(snapshotSeq, new ArrayList<>(snapshotSlots.values())));
+            }
+
+            background = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "lot-journal");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long forceMillis = properties.getForceInterval()
+                    .toMillis();
+            background.scheduleWithFixedDelay(eventLog::force, forceMillis, forceMillis, TimeUnit.MILLISECONDS);
+
+            return slots.values()
+                    .stream()
+                    .map(LotJournal::copy)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover the lot journal", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Journals an event once its transaction has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLotEvent(LotEvent event) throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        byte[] payload = objectMapper.writeValueAsBytes(event);
+        lock.lock();
+        try {
+            if (eventLog == null) {
+                return; // not recovered yet
+            }
+            long seq = eventLog.append(payload);
+            apply(slots, event);
+            if (++sinceSnapshot >= properties.getSnapshotEvery()) {
+                sinceSnapshot = 0;
+                background.execute(() -> snapshotThrough(seq));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Current journaled slot state, for inspection & tests.
+     */
+    public List<ParkingSlot> currentSlots() {
+        lock.lock();
+        try {
+            return slots.values()
+                    .stream()
+                    .map(LotJournal::copy)
+                    .toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lets a pending snapshot finish, then flushes and closes the journal.
+     */
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        ScheduledExecutorService pending;
+        lock.lock();
+        try {
+            if (eventLog == null) {
+                return;
+            }
+            pending = background;
+        } finally {
+            lock.unlock();
+        }
+        // Not under the lock: a snapshot being written takes it to prune segments
+        pending.shutdown();
+        pending.awaitTermination(30, TimeUnit.SECONDS);
+        lock.lock();
+        try {
+            eventLog.close();
+            eventLog = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replays the log from the last snapshot through {@code seq} onto the snapshot state and writes it;
+     * runs on the background thread. Events are idempotent, so a failed attempt is simply replayed again.
+     */
+    private void snapshotThrough(long seq) {
+        try {
+            eventLog.replay(snapshotSeq, seq, (bytes, replayed) -> apply(snapshotSlots, readEvent(bytes)));
+            snapshotSeq = seq;
+            writeSnapshot(new Snapshot(seq, new ArrayList<>(snapshotSlots.values())));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write lot snapshot {}", seq, e);
+        }
+    }
+
+    private static void apply(Map<Long, ParkingSlot> target, LotEvent event) {
+        switch (event.type()) {
+            case ENTRY -> setStatus(target, event.slotId(), SlotStatus.OCCUPIED);
+            case EXIT, HOLD_RELEASED -> setStatus(target, event.slotId(), SlotStatus.FREE);
+            case HOLD -> setStatus(target, event.slotId(), SlotStatus.RESERVED);
+            case ENTRY_VOIDED -> {
+                if (event.slotStatus() == null) {
+                    target.remove(event.slotId());
+                } else {
+                    setStatus(target, event.slotId(), event.slotStatus());
+                }
+            }
+            case SLOT_CHANGED -> {
+                event.removedSlotIds()
+                        .forEach(target::remove);
+                event.slots()
+                        .forEach(slot -> target.put(slot.getId(), copy(slot)));
+            }
+        }
+    }
+
+    private static void setStatus(Map<Long, ParkingSlot> target, Long slotId, SlotStatus status) {
+        ParkingSlot slot = target.get(slotId);
+        if (slot != null) {
+            slot.setStatus(status);
+        }
+    }
+
+    /**
+     * Writes a snapshot atomically, then drops the older snapshots and the segments it covers.
+     */
+    private void writeSnapshot(Snapshot snapshot) throws IOException {
+        Path directory = Path.of(properties.getDirectory());
+        Path target = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, snapshot.seq(), SNAPSHOT_SUFFIX));
+        Path tmp = directory.resolve(target.getFileName() + ".tmp");
+        Files.write(tmp, objectMapper.writeValueAsBytes(snapshot));
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (Path older : snapshotFiles(directory)) {
+            if (!older.equals(target) && older.compareTo(target) < 0) {
+                Files.deleteIfExists(older);
+            }
+        }
+        lock.lock();
+        try {
+            if (eventLog != null) {
+                eventLog.deleteThrough(snapshot.seq());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Optional<Snapshot> latestSnapshot(Path directory) throws IOException {
+        List<Path> snapshots = snapshotFiles(directory);
+        if (snapshots.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(objectMapper.readValue(snapshots.get(snapshots.size() - 1)
+                .toFile(), Snapshot.class));
+    }
+
+    private static List<Path> snapshotFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            // Zero-padded sequence numbers, so name order is snapshot order
+            return files.filter(file -> {
+                        String name = file.getFileName()
+                                .toString();
+                        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparing(Path::getFileName))
+                    .toList();
+        }
+    }
+
+    private LotEvent readEvent(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, LotEvent.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ParkingSlot copy(ParkingSlot slot) {
+        ParkingSlot copy = new ParkingSlot(slot.getSlotNumber(), slot.getFloorNumber(), slot.getType(), slot.getStatus());
+        copy.setId(slot.getId());
+        copy.setVersion(slot.getVersion());
+        return copy;
+    }
+
+    /**
+     * Slot state as of journal sequence number {@code seq}.
+     */
+    record Snapshot(long seq, List<ParkingSlot> slots) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.parking.service;
+
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.VehicleType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the entry and exit paths, tagged by gate and vehicle type.
+ * <p>
+ * All meters are registered up front and kept in arrays indexed by enum ordinal, so recording
+ * a sample on the hot path is an array lookup, not a registry lookup by name and tags.
+ * Repository call times come from Spring Data's {@code spring.data.repository.invocations}.
+ */
+@Service
+public class ParkingMetrics {
+
+    private static final String GATE = "gate";
+    private static final String VEHICLE_TYPE = "vehicle.type";
+
+    // [gate][vehicle type] -> claim + DB confirmation time, by outcome
+    private final Timer[][] allocated;
+    private final Timer[][] full;
+    // [gate][vehicle type] -> claims lost to a stale index entry (slot no longer FREE in the DB)
+    private final Counter[][] staleClaims;
+    // [vehicle type] -> fare table lookup time
+    private final Timer[] fareQuotes;
+
+    public ParkingMetrics(MeterRegistry registry, SlotAllocator slotAllocator, ActiveTicketCache activeTickets) {
+        Gate[] gates = Gate.values();
+        VehicleType[] types = VehicleType.values();
+        allocated = new Timer[gates.length][types.length];
+        full = new Timer[gates.length][types.length];
+        staleClaims = new Counter[gates.length][types.length];
+        fareQuotes = new Timer[types.length];
+
+        for (Gate gate : gates) {
+            for (VehicleType type : types) {
+                int g = gate.ordinal();
+                int t = type.ordinal();
+                allocated[g][t] = allocationTimer(registry, gate, type, "allocated");
+                full[g][t] = allocationTimer(registry, gate, type, "full");
+                staleClaims[g][t] = Counter.builder("parking.allocation.stale.claims")
+                        .description("Slots claimed in the index that were no longer free in the database")
+                        .tag(GATE, gate.name())
+                        .tag(VEHICLE_TYPE, type.name())
+                        .register(registry);
+            }
+        }
+        for (VehicleType type : types) {
+            fareQuotes[type.ordinal()] = Timer.builder("parking.fare.quote")
+                    .description("Fare table lookup")
+                    .tag(VEHICLE_TYPE, type.name())
+                    .publishPercentileHistogram()
+                    .register(registry);
+            Gauge.builder("parking.slots.free", slotAllocator, allocator -> allocator.freeCount(type))
+                    .description("Free slots in the allocation index")
+                    .tag(VEHICLE_TYPE, type.name())
+                    .register(registry);
+        }
+
+        Gauge.builder("parking.ticket.cache.size", activeTickets, cache -> cache.stats()
+                        .size())
+                .description("Active tickets cached for fare & exit")
+                .register(registry);
+        FunctionCounter.builder("parking.ticket.cache.requests", activeTickets, cache -> cache.stats()
+                        .hits())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("parking.ticket.cache.requests", activeTickets, cache -> cache.stats()
+                        .misses())
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("parking.ticket.cache.evictions", activeTickets, cache -> cache.stats()
+                        .evictions())
+                .register(registry);
+    }
+
+    /**
+     * Records one allocation attempt, from the first claim until a slot was confirmed or none was left.
+     */
+    public void recordAllocation(Gate gate, VehicleType type, long startNanos, boolean succeeded) {
+        Timer[][] timers = succeeded ? allocated : full;
+        timers[gate.ordinal()][type.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void staleClaim(Gate gate, VehicleType type) {
+        staleClaims[gate.ordinal()][type.ordinal()].increment();
+    }
+
+    public void recordFareQuote(VehicleType type, long startNanos) {
+        fareQuotes[type.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer allocationTimer(MeterRegistry registry, Gate gate, VehicleType type, String outcome) {
+        return Timer.builder("parking.allocation")
+                .description("Nearest-slot claim, including the database confirmation")
+                .tag(GATE, gate.name())
+                .tag(VEHICLE_TYPE, type.name())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -1,24 +1,36 @@
 package com.example.parking.service;
 
+import com.example.parking.config.ReservationProperties;
 import com.example.parking.dto.*;
 import com.example.parking.entity.*;
+import com.example.parking.event.LotEvent;
 import com.example.parking.exception.ParkingException;
 import com.example.parking.repository.ParkingSlotRepository;
 import com.example.parking.repository.PaymentRepository;
+import com.example.parking.repository.ReservationRepository;
 import com.example.parking.repository.TicketRepository;
 import com.example.parking.repository.VehicleRepository;
-import com.example.parking.util.SlotDistance;
+import com.example.parking.util.Money;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.Set;
+import java.util.function.IntConsumer;
 
 @Service
 public class ParkingService {
@@ -27,33 +39,71 @@ public class ParkingService {
     private final TicketRepository ticketRepository;
     private final VehicleRepository vehicleRepository;
     private final PaymentRepository paymentRepository;
-    private final Map<Gate, Map<VehicleType, PriorityBlockingQueue<SlotDistance>>> gateHeaps;
-    private final Map<String, Integer> distanceMap;
+    private final SlotAllocator slotAllocator;
     private final PricingStrategy pricingStrategy;
+    private final ActivePlateRegistry activePlates;
+    private final WriteBehindPipeline writeBehind;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FareQuoteCache fareQuotes;
+    private final ActiveTicketCache activeTickets;
+    private final ParkingMetrics metrics;
+    private final AvailabilityService availability;
+    private final ReservationRepository reservationRepository;
+    private final ReservationHolds reservationHolds;
+    private final ReservationProperties reservationProperties;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
     public ParkingService(ParkingSlotRepository parkingSlotRepository, TicketRepository ticketRepository,
-                          VehicleRepository vehicleRepository, PaymentRepository paymentRepository, Map<Gate, Map<VehicleType, PriorityBlockingQueue<SlotDistance>>> gateHeaps, Map<String, Integer> distanceMap, PricingStrategy pricingStrategy) {
+                          VehicleRepository vehicleRepository, PaymentRepository paymentRepository, SlotAllocator slotAllocator, PricingStrategy pricingStrategy,
+                          ActivePlateRegistry activePlates, WriteBehindPipeline writeBehind, ApplicationEventPublisher eventPublisher,
+                          FareQuoteCache fareQuotes, ActiveTicketCache activeTickets, ParkingMetrics metrics,
+                          AvailabilityService availability, ReservationRepository reservationRepository,
+                          ReservationHolds reservationHolds, ReservationProperties reservationProperties,
+                          TransactionTemplate transactionTemplate) {
         this.parkingSlotRepository = parkingSlotRepository;
         this.ticketRepository = ticketRepository;
         this.vehicleRepository = vehicleRepository;
         this.paymentRepository = paymentRepository;
-        this.gateHeaps = gateHeaps;
-        this.distanceMap = distanceMap;
+        this.slotAllocator = slotAllocator;
         this.pricingStrategy = pricingStrategy;
+        this.activePlates = activePlates;
+        this.writeBehind = writeBehind;
+        this.eventPublisher = eventPublisher;
+        this.fareQuotes = fareQuotes;
+        this.activeTickets = activeTickets;
+        this.metrics = metrics;
+        this.availability = availability;
+        this.reservationRepository = reservationRepository;
+        this.reservationHolds = reservationHolds;
+        this.reservationProperties = reservationProperties;
+        this.transactionTemplate = transactionTemplate;
     }
 
-    @Transactional
+    /**
+     * Admits one vehicle. A write-behind entry runs outside any transaction, so no pooled
+     * connection is held while it waits for the journal's group commit.
+     */
     public TicketResponse enterVehicle(EntryRequest entryRequest) {
-        // 1. Duplicate check
-        Optional<Ticket> active = ticketRepository.findActiveTicketByPlate(entryRequest.getPlateNo());
-        if (active.isPresent()) {
+        if (entryRequest.getReservationId() == null && writeBehind.isEnabled()) {
+            return admitWriteBehind(entryRequest);
+        }
+        return transactionTemplate.execute(status -> enterTransactionally(entryRequest));
+    }
+
+    private TicketResponse enterTransactionally(EntryRequest entryRequest) {
+        // 1. Duplicate check against the plates inside; undone unless the entry commits
+        String plateNo = requirePlate(entryRequest.getPlateNo());
+        if (!activePlates.enter(plateNo)) {
             throw new ParkingException("Vehicle already inside", 409); // 409 Conflict
         }
+        exitPlateOnRollback(plateNo);
 
-        // 2. Find and lock a free slot (pessimistic)
-        Gate entryGate = Gate.valueOf(entryRequest.getEntryGate());
-        ParkingSlot parkingSlot = allocateSlot(entryGate, entryRequest.getVehicleType());
+        // 2. Take the reserved slot, or claim the nearest free one (lock-free)
+        Gate entryGate = parseGate(entryRequest.getEntryGate());
+        ParkingSlot parkingSlot = entryRequest.getReservationId() != null
+                ? redeemReservation(entryRequest)
+                : allocateSlot(entryGate, entryRequest.getVehicleType(), SlotStatus.OCCUPIED);
 
         if (Objects.isNull(parkingSlot)) {
             throw new ParkingException("Parking full for vehicle type: " + entryRequest.getVehicleType(), 409);
@@ -63,98 +113,431 @@ public class ParkingService {
         Vehicle vehicle = vehicleRepository.findByPlateNo(entryRequest.getPlateNo())
                 .orElseGet(() -> vehicleRepository.save(new Vehicle(entryRequest.getPlateNo(), entryRequest.getVehicleType(), entryRequest.getOwnerName())));
 
-        // 4. Create & Return the ticket
-        return createTicket(vehicle, parkingSlot);
+        // 4. Create & Return the ticket; the slot is referenced by id, not re-read
+        Ticket ticket = newTicket(vehicle, parkingSlotRepository.getReferenceById(parkingSlot.getId()), entryGate);
+        ticketRepository.save(ticket);
+        eventPublisher.publishEvent(LotEvent.entry(ticket.getId(), plateNo, parkingSlot.getId()));
+        onEntryCommit(List.of(toActiveTicket(ticket, parkingSlot.getSlotNumber())));
+        return toTicketResponse(ticket, parkingSlot.getSlotNumber());
+    }
+
+    /**
+     * Admits a batch of buffered gate events in one transaction. Slots are claimed per
+     * gate & vehicle type in one pass over the index and all tickets are inserted together.
+     * Items that fail validation or find no free slot are reported individually and do not
+     * abort the rest of the batch.
+     */
+    @Transactional
+    public List<BatchItemResponse<TicketResponse>> enterVehicles(List<EntryRequest> entryRequests) {
+        List<BatchItemResponse<TicketResponse>> results = new ArrayList<>(Collections.nCopies(entryRequests.size(), null));
+
+        // 1. Validate & group by gate and vehicle type; reserved entries take their slot right away
+        Map<SlotGroup, List<Integer>> groups = new LinkedHashMap<>();
+        Map<Integer, ParkingSlot> slotsByItem = new LinkedHashMap<>();
+        Set<String> plates = new HashSet<>();
+        Set<String> entered = new HashSet<>();
+        for (int i = 0; i < entryRequests.size(); i++) {
+            EntryRequest entryRequest = entryRequests.get(i);
+            try {
+                Gate entryGate = parseGate(entryRequest.getEntryGate());
+                if (entryRequest.getVehicleType() == null) {
+                    throw new ParkingException("Vehicle type is required", 400);
+                }
+                if (!plates.add(requirePlate(entryRequest.getPlateNo()))) {
+                    throw new ParkingException("Vehicle appears more than once in batch", 409);
+                }
+                if (!activePlates.enter(entryRequest.getPlateNo())) {
+                    throw new ParkingException("Vehicle already inside", 409);
+                }
+                entered.add(entryRequest.getPlateNo());
+                if (entryRequest.getReservationId() != null) {
+                    try {
+                        slotsByItem.put(i, redeemReservation(entryRequest));
+                    } catch (ParkingException e) {
+                        entered.remove(entryRequest.getPlateNo());
+                        activePlates.exit(entryRequest.getPlateNo());
+                        throw e;
+                    }
+                    continue;
+                }
+                groups.computeIfAbsent(new SlotGroup(entryGate, entryRequest.getVehicleType()), group -> new ArrayList<>())
+                        .add(i);
+            } catch (ParkingException e) {
+                results.set(i, BatchItemResponse.failed(i, e.getStatus(), e.getMessage()));
+            }
+        }
+        afterTransaction(status -> {
+            if (status != TransactionSynchronization.STATUS_COMMITTED) {
+                entered.forEach(activePlates::exit);
+            }
+        });
+
+        // 2. Claim slots for every group, nearest first
+        groups.forEach((group, items) -> {
+            List<ParkingSlot> slots = allocateSlots(group.gate(), group.type(), items.size());
+            for (int k = 0; k < items.size(); k++) {
+                int i = items.get(k);
+                if (k < slots.size()) {
+                    slotsByItem.put(i, slots.get(k));
+                } else {
+                    String plateNo = entryRequests.get(i)
+                            .getPlateNo();
+                    entered.remove(plateNo);
+                    activePlates.exit(plateNo);
+                    results.set(i, BatchItemResponse.failed(i, 409, "Parking full for vehicle type: " + group.type()));
+                }
+            }
+        });
+
+        // 3. Create or fetch vehicles
+        Map<String, Vehicle> vehicles = new HashMap<>();
+        vehicleRepository.findByPlateNoIn(slotsByItem.keySet()
+                        .stream()
+                        .map(i -> entryRequests.get(i)
+                                .getPlateNo())
+                        .toList())
+                .forEach(vehicle -> vehicles.put(vehicle.getPlateNo(), vehicle));
+        List<Vehicle> newVehicles = new ArrayList<>();
+        for (int i : slotsByItem.keySet()) {
+            EntryRequest entryRequest = entryRequests.get(i);
+            vehicles.computeIfAbsent(entryRequest.getPlateNo(), plateNo -> {
+                Vehicle vehicle = new Vehicle(plateNo, entryRequest.getVehicleType(), entryRequest.getOwnerName());
+                newVehicles.add(vehicle);
+                return vehicle;
+            });
+        }
+        vehicleRepository.saveAll(newVehicles);
+
+        // 4. Insert all tickets together
+        Map<Integer, Ticket> tickets = new LinkedHashMap<>();
+        slotsByItem.forEach((i, parkingSlot) -> {
+            EntryRequest entryRequest = entryRequests.get(i);
+            tickets.put(i, newTicket(vehicles.get(entryRequest.getPlateNo()), parkingSlot, parseGate(entryRequest.getEntryGate())));
+        });
+        ticketRepository.saveAll(tickets.values());
+        tickets.values()
+                .forEach(ticket -> eventPublisher.publishEvent(LotEvent.entry(ticket.getId(), ticket.getActivePlate(), ticket.getSlot()
+                        .getId())));
+        onEntryCommit(tickets.values()
+                .stream()
+                .map(ticket -> toActiveTicket(ticket, ticket.getSlot()
+                        .getSlotNumber()))
+                .toList());
+        tickets.forEach((i, ticket) -> results.set(i, BatchItemResponse.ok(i, toTicketResponse(ticket, ticket.getSlot()
+                .getSlotNumber()))));
+
+        return results;
     }
 
-    private TicketResponse createTicket(Vehicle vehicle, ParkingSlot parkingSlot) {
+    /**
+     * Holds the free slot nearest to the gate for the vehicle until the reservation is
+     * redeemed at entry, cancelled, or lapses after {@code app.reservation.hold-time}.
+     */
+    @Transactional
+    public ReservationResponse reserve(ReservationRequest reservationRequest) {
+        // 1. One hold per vehicle; undone unless the reservation commits
+        String plateNo = requirePlate(reservationRequest.getPlateNo());
+        Gate gate = parseGate(reservationRequest.getGate());
+        if (reservationRequest.getVehicleType() == null) {
+            throw new ParkingException("Vehicle type is required", 400);
+        }
+        if (!reservationHolds.claimPlate(plateNo)) {
+            throw new ParkingException("Vehicle already holds a reservation", 409);
+        }
+        afterTransaction(status -> {
+            if (status != TransactionSynchronization.STATUS_COMMITTED) {
+                reservationHolds.releasePlate(plateNo);
+            }
+        });
+
+        // 2. Claim the nearest free slot & mark it RESERVED
+        ParkingSlot parkingSlot = allocateSlot(gate, reservationRequest.getVehicleType(), SlotStatus.RESERVED);
+        if (parkingSlot == null) {
+            throw new ParkingException("Parking full for vehicle type: " + reservationRequest.getVehicleType(), 409);
+        }
+
+        // 3. Record the reservation & start its expiry once committed
+        Reservation reservation = new Reservation();
+        reservation.setPlateNo(plateNo);
+        reservation.setVehicleType(reservationRequest.getVehicleType());
+        reservation.setGate(gate);
+        reservation.setSlot(parkingSlotRepository.getReferenceById(parkingSlot.getId()));
+        reservation.setHeldUntil(LocalDateTime.now()
+                .plus(reservationProperties.getHoldTime()));
+        reservation.setStatus(ReservationStatus.HELD);
+        reservationRepository.save(reservation);
+        eventPublisher.publishEvent(LotEvent.hold(parkingSlot.getId()));
+
+        ReservationHolds.Hold hold = new ReservationHolds.Hold(reservation.getId(), plateNo, reservation.getVehicleType(), gate,
+                parkingSlot, reservation.getHeldUntil(), System.nanoTime() + reservationProperties.getHoldTime()
+                .toNanos());
+        afterTransaction(status -> {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                reservationHolds.hold(hold);
+            }
+        });
+        return new ReservationResponse(reservation.getId(), plateNo, reservation.getVehicleType(), parkingSlot.getSlotNumber(),
+                reservation.getHeldUntil());
+    }
+
+    /**
+     * Cancels a held reservation and hands its slot back to the lot.
+     */
+    @Transactional
+    public void cancelReservation(Long reservationId) {
+        ReservationHolds.Hold hold = takeHold(reservationId);
+        restoreOnRollback(hold);
+        reservationRepository.compareAndSetStatus(reservationId, ReservationStatus.HELD, ReservationStatus.CANCELLED);
+
+        // A slot an admin changed meanwhile keeps the admin's status
+        Long slotId = hold.slot()
+                .getId();
+        if (parkingSlotRepository.compareAndSetStatus(slotId, SlotStatus.RESERVED, SlotStatus.FREE) == 1) {
+            eventPublisher.publishEvent(LotEvent.holdReleased(slotId));
+            releaseOnCommit(slotId);
+        }
+    }
+
+    /**
+     * Turns the reservation's held slot into the entry's slot, without searching the index.
+     * A hold that fails validation is put straight back, so a rejected batch item keeps it too.
+     */
+    private ParkingSlot redeemReservation(EntryRequest entryRequest) {
+        ReservationHolds.Hold hold = takeHold(entryRequest.getReservationId());
+        try {
+            if (!hold.plateNo()
+                    .equals(entryRequest.getPlateNo())) {
+                throw new ParkingException("Reservation is for another vehicle", 400);
+            }
+            if (hold.type() != entryRequest.getVehicleType()) {
+                throw new ParkingException("Reservation is for vehicle type: " + hold.type(), 400);
+            }
+            if (parkingSlotRepository.compareAndSetStatus(hold.slot()
+                    .getId(), SlotStatus.RESERVED, SlotStatus.OCCUPIED) == 0) {
+                throw new ParkingException("Reserved slot is no longer available", 409);
+            }
+        } catch (ParkingException e) {
+            reservationHolds.restore(hold);
+            throw e;
+        }
+
+        reservationRepository.compareAndSetStatus(hold.reservationId(), ReservationStatus.HELD, ReservationStatus.REDEEMED);
+        restoreOnRollback(hold);
+        return hold.slot();
+    }
+
+    private ReservationHolds.Hold takeHold(Long reservationId) {
+        ReservationHolds.Hold hold = reservationHolds.take(reservationId);
+        if (hold == null) {
+            throw new ParkingException("Reservation not found or no longer held", 404);
+        }
+        return hold;
+    }
+
+    /**
+     * Puts a taken hold back with its original deadline unless the transaction commits; drops its plate if it does.
+     */
+    private void restoreOnRollback(ReservationHolds.Hold hold) {
+        afterTransaction(status -> {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                reservationHolds.releasePlate(hold.plateNo());
+            } else {
+                reservationHolds.restore(hold);
+            }
+        });
+    }
+
+    /**
+     * Write-behind entry: the slot is claimed in memory only and the ticket is made durable
+     * by the journal; vehicle, slot and ticket rows are written in the background.
+     * There is no transaction to roll back, so a failed entry undoes its plate and claim itself.
+     */
+    private TicketResponse admitWriteBehind(EntryRequest entryRequest) {
+        // 1. Duplicate check against the plates inside
+        String plateNo = requirePlate(entryRequest.getPlateNo());
+        if (!activePlates.enter(plateNo)) {
+            throw new ParkingException("Vehicle already inside", 409); // 409 Conflict
+        }
+        ParkingSlot claimed = null;
+        Gate entryGate;
+        TicketResponse ticketResponse;
+        try {
+            // 2. Claim the nearest free slot; a slot an admin is changing is left to that change
+            entryGate = parseGate(entryRequest.getEntryGate());
+            long start = System.nanoTime();
+            do {
+                claimed = slotAllocator.claim(entryGate, entryRequest.getVehicleType());
+            } while (claimed != null && !writeBehind.hold(claimed.getId()));
+            metrics.recordAllocation(entryGate, entryRequest.getVehicleType(), start, claimed != null);
+            if (claimed == null) {
+                throw new ParkingException("Parking full for vehicle type: " + entryRequest.getVehicleType(), 409);
+            }
+
+            // 3. Journal the entry; returns once it is durable
+            ticketResponse = writeBehind.admit(entryRequest, claimed, entryGate);
+        } catch (RuntimeException e) {
+            if (claimed != null) {
+                slotAllocator.release(claimed);
+            }
+            activePlates.exit(plateNo);
+            throw e;
+        }
+        availability.entered(entryGate);
+        eventPublisher.publishEvent(LotEvent.entry(ticketResponse.getTicketId(), ticketResponse.getPlateNo(), claimed.getId()));
+        return ticketResponse;
+    }
+
+    private Ticket newTicket(Vehicle vehicle, ParkingSlot parkingSlot, Gate entryGate) {
         Ticket ticket = new Ticket();
         ticket.setVehicle(vehicle);
         ticket.setSlot(parkingSlot);
+        ticket.setEntryGate(entryGate);
         ticket.setEntryTime(LocalDateTime.now());
         ticket.setStatus(TicketStatus.ACTIVE);
-        ticketRepository.save(ticket);
+        ticket.setActivePlate(vehicle.getPlateNo());
+        return ticket;
+    }
 
-        return new TicketResponse(ticket.getId(), vehicle.getPlateNo(), parkingSlot.getSlotNumber(), ticket.getEntryTime());
+    private TicketResponse toTicketResponse(Ticket ticket, String slotNumber) {
+        return new TicketResponse(ticket.getId(), ticket.getVehicle()
+                .getPlateNo(), slotNumber, ticket.getEntryTime());
     }
 
+    /**
+     * Quotes the fare without writing anything. Repeated calls within the quote's lifetime
+     * return the same quote and token without touching the database.
+     */
     public FareResponse calculateFare(Long ticketId) {
-        Ticket ticket = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new ParkingException("Ticket not found", 400));
-
-        if (ticket.getStatus() != TicketStatus.ACTIVE) {
-            throw new ParkingException("Ticket not active", 400);
+        // 1. Polling kiosks get the cached quote back
+        FareQuoteCache.FareQuote quote = fareQuotes.get(ticketId);
+        if (quote == null) {
+            writeBehind.awaitWritten(ticketId);
+            long stamp = activeTickets.stamp(ticketId);
+            ActiveTicket ticket = findActiveTicket(ticketId);
+
+            // 2. Calculate an amount based on Pricing Rules
+            long minutes = minutesParked(ticket);
+            quote = fareQuotes.put(ticketId, ticket.plateNo(), minutes, fareMinor(ticket, minutes));
+            // An exit that committed meanwhile may have evicted the quotes before this one went in
+            if (activeTickets.evictedSince(ticketId, stamp)) {
+                fareQuotes.evict(ticketId);
+            }
         }
 
-        // Calculate an amount based on Pricing Rules
-        LocalDateTime now = LocalDateTime.now();
-        long minutes = Duration.between(ticket.getEntryTime(), now)
-                .toMinutes();
-        BigDecimal amount = pricingStrategy.calculateFare(ticket.getVehicle()
-                .getType(), minutes);
-
         FareResponse fareResponse = new FareResponse();
-        fareResponse.setTicketId(ticket.getId());
-        fareResponse.setPlateNo(ticket.getVehicle()
-                .getPlateNo());
-        fareResponse.setDurationMinutes(minutes);
-        fareResponse.setAmount(amount);
-
-        // Save the amount to be paid against the ticket with pending status
-        Payment payment = new Payment();
-        payment.setTicket(ticket);
-        payment.setAmount(amount);
-        payment.setTimestamp(LocalDateTime.now());
-        payment.setStatus(PaymentStatus.PENDING);
-        paymentRepository.save(payment);
-
+        fareResponse.setTicketId(ticketId);
+        fareResponse.setPlateNo(quote.plateNo());
+        fareResponse.setDurationMinutes(quote.durationMinutes());
+        fareResponse.setAmount(Money.toBigDecimal(quote.amountMinor()));
+        fareResponse.setQuoteToken(quote.token());
+        fareResponse.setValidUntil(quote.validUntil());
         return fareResponse;
     }
 
     @Transactional
     public ReceiptResponse exitVehicle(ExitRequest exitRequest) {
-        Ticket ticket = ticketRepository.findById(exitRequest.getTicketId())
-                .orElseThrow(() -> new ParkingException("Ticket not found", 400));
+        writeBehind.awaitWritten(exitRequest.getTicketId());
+        return closeTicket(findActiveTicket(exitRequest.getTicketId()), exitRequest);
+    }
 
-        if (ticket.getStatus() != TicketStatus.ACTIVE) {
-            throw new ParkingException("Ticket not active", 400);
+    /**
+     * Checks out a batch of buffered gate events in one transaction. Tickets missing from the
+     * cache are loaded with one joined query; failed items are reported individually.
+     */
+    @Transactional
+    public List<BatchItemResponse<ReceiptResponse>> exitVehicles(List<ExitRequest> exitRequests) {
+        List<Long> ticketIds = exitRequests.stream()
+                .map(ExitRequest::getTicketId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        ticketIds.forEach(writeBehind::awaitWritten);
+        Map<Long, ActiveTicket> tickets = new HashMap<>(activeTickets.getAll(ticketIds));
+        List<Long> missed = ticketIds.stream()
+                .filter(ticketId -> !tickets.containsKey(ticketId))
+                .toList();
+        Set<Long> existing = new HashSet<>();
+        if (!missed.isEmpty()) {
+            loadActiveTickets(missed).forEach(ticket -> tickets.put(ticket.ticketId(), ticket));
+            existing.addAll(ticketRepository.findExistingIds(missed));
         }
 
-        // Find existing Payment row for this ticket
-        Payment payment = paymentRepository.findByTicketId(exitRequest.getTicketId())
-                .orElseThrow(() -> new ParkingException("No pending payment found for this ticket", 400));
+        List<BatchItemResponse<ReceiptResponse>> results = new ArrayList<>(exitRequests.size());
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < exitRequests.size(); i++) {
+            ExitRequest exitRequest = exitRequests.get(i);
+            try {
+                ActiveTicket ticket = tickets.get(exitRequest.getTicketId());
+                if (ticket == null) {
+                    throw new ParkingException(existing.contains(exitRequest.getTicketId()) ? "Ticket not active" : "Ticket not found", 400);
+                }
+                if (!seen.add(ticket.ticketId())) {
+                    throw new ParkingException("Ticket appears more than once in batch", 409);
+                }
+                results.add(BatchItemResponse.ok(i, closeTicket(ticket, exitRequest)));
+            } catch (ParkingException e) {
+                results.add(BatchItemResponse.failed(i, e.getStatus(), e.getMessage()));
+            }
+        }
+        return results;
+    }
 
+    /**
+     * Settles the payment, closes the ticket and frees its slot, without reading any of them back
+     */
+    private ReceiptResponse closeTicket(ActiveTicket ticket, ExitRequest exitRequest) {
+        // Validate the amount: the quoted one while the quote token is valid, else the fare as of now
+        if (exitRequest.getAmount() == null) {
+            throw new ParkingException("Payment amount is required", 400);
+        }
+        long dueMinor = fareQuotes.redeem(ticket.ticketId(), exitRequest.getQuoteToken())
+                .orElseGet(() -> fareMinor(ticket, minutesParked(ticket)));
+        long paidMinor = Money.toMinor(exitRequest.getAmount());
+        if (paidMinor < dueMinor) {
+            throw new ParkingException("Insufficient payment. Required: " + Money.toBigDecimal(dueMinor), 400);
+        }
 
-        // Validate the amount
-        if (exitRequest.getAmount()
-                .compareTo(payment.getAmount()) < 0) {
-            throw new ParkingException("Insufficient payment. Required: " + payment.getAmount(), 400);
+        // Close the ticket; a concurrent exit of the same ticket finds it closed already
+        LocalDateTime exitTime = LocalDateTime.now();
+        if (ticketRepository.closeIfActive(ticket.ticketId(), exitTime) == 0) {
+            activeTickets.evict(ticket.ticketId());
+            throw new ParkingException("Ticket not active", 400);
         }
 
-        // Update payment row to SUCCESS
+        // Upsert the payment row as SUCCESS; the only payment write of the flow
+        Payment payment = ticket.paymentId() == null ? null : paymentRepository.findById(ticket.paymentId())
+                .orElse(null);
+        if (payment == null) {
+            payment = new Payment();
+            payment.setTicket(ticketRepository.getReferenceById(ticket.ticketId()));
+        }
+        payment.setAmount(Money.toBigDecimal(dueMinor));
         payment.setStatus(PaymentStatus.SUCCESS);
-        payment.setTimestamp(LocalDateTime.now());
+        payment.setTimestamp(exitTime);
         paymentRepository.save(payment);
 
-        // Update ticket and free slot
-        ticket.setExitTime(LocalDateTime.now());
-        ticket.setStatus(TicketStatus.CLOSED);
-        ticketRepository.save(ticket);
-
-        releaseSlot(ticket);
+        // Free the slot
+        releaseSlot(ticket.slotId());
+        eventPublisher.publishEvent(LotEvent.exit(ticket.ticketId(), ticket.plateNo(), ticket.slotId()));
+        afterTransaction(status -> {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                activePlates.exit(ticket.plateNo());
+                // Ticket first: a fare quoted meanwhile sees the eviction or is evicted right after
+                activeTickets.evict(ticket.ticketId());
+                fareQuotes.evict(ticket.ticketId());
+                availability.exited(ticket.entryGate());
+            }
+        });
 
         ReceiptResponse receiptResponse = new ReceiptResponse();
-        receiptResponse.setTicketId(ticket.getId());
-        receiptResponse.setPlateNo(ticket.getVehicle()
-                .getPlateNo());
-        receiptResponse.setSlotNumber(ticket.getSlot()
-                .getSlotNumber());
-        receiptResponse.setExitTime(LocalDateTime.now());
+        receiptResponse.setTicketId(ticket.ticketId());
+        receiptResponse.setPlateNo(ticket.plateNo());
+        receiptResponse.setSlotNumber(ticket.slotNumber());
+        receiptResponse.setExitTime(exitTime);
         receiptResponse.setPaymentStatus(payment.getStatus()
                 .name());
-        receiptResponse.setPaidAmount(exitRequest.getAmount());
-        receiptResponse.setRemainingChange(exitRequest.getAmount()
-                .subtract(payment.getAmount()));
+        receiptResponse.setPaidAmount(Money.toBigDecimal(paidMinor));
+        receiptResponse.setRemainingChange(Money.toBigDecimal(paidMinor - dueMinor));
         receiptResponse.setSlotFreed(true);
         receiptResponse.setMessage("Exit successful, visit again. Thank you!");
 
@@ -162,57 +545,175 @@ public class ParkingService {
     }
 
     /**
-     * Allocates nearest free slot for given gate & vehicle type
+     * Reads an active ticket through the cache; a miss costs one joined query.
+     */
+    private ActiveTicket findActiveTicket(Long ticketId) {
+        ActiveTicket ticket = activeTickets.get(ticketId);
+        if (ticket != null) {
+            return ticket;
+        }
+        if (ticketId == null) {
+            throw new ParkingException("Ticket not found", 400);
+        }
+        List<ActiveTicket> loaded = loadActiveTickets(List.of(ticketId));
+        if (loaded.isEmpty()) {
+            throw new ParkingException(ticketRepository.existsById(ticketId) ? "Ticket not active" : "Ticket not found", 400);
+        }
+        return loaded.get(0);
+    }
+
+    private List<ActiveTicket> loadActiveTickets(List<Long> ticketIds) {
+        // Stamped before the query, so a ticket whose exit commits meanwhile is not cached again
+        Map<Long, Long> stamps = new HashMap<>();
+        ticketIds.forEach(ticketId -> stamps.put(ticketId, activeTickets.stamp(ticketId)));
+
+        // One row per payment; keep the latest if an old checkout left several
+        Map<Long, ActiveTicket> loaded = new HashMap<>();
+        ticketRepository.findActive(ticketIds)
+                .forEach(ticket -> loaded.merge(ticket.ticketId(), ticket,
+                        (a, b) -> a.paymentId() != null && (b.paymentId() == null || a.paymentId() > b.paymentId()) ? a : b));
+        loaded.values()
+                .forEach(ticket -> activeTickets.putIfNotEvictedSince(ticket, stamps.get(ticket.ticketId())));
+        return List.copyOf(loaded.values());
+    }
+
+    /**
+     * Caches the tickets of an entry and counts them in at their gates once it has committed.
      */
-    private synchronized ParkingSlot allocateSlot(Gate gate, VehicleType type) {
-        PriorityBlockingQueue<SlotDistance> gateHeap = gateHeaps.get(gate)
-                .get(type);
+    private void onEntryCommit(List<ActiveTicket> entered) {
+        afterTransaction(status -> {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                entered.forEach(ticket -> {
+                    activeTickets.put(ticket);
+                    availability.entered(ticket.entryGate());
+                });
+            }
+        });
+    }
 
-        while (!gateHeap.isEmpty()) {
-            SlotDistance slotDistance = gateHeap.poll();
-            ParkingSlot parkingSlot = slotDistance.getSlot();
+    private ActiveTicket toActiveTicket(Ticket ticket, String slotNumber) {
+        return new ActiveTicket(ticket.getId(), ticket.getVehicle()
+                .getPlateNo(), ticket.getVehicle()
+                .getType(), ticket.getSlot()
+                .getId(), slotNumber, ticket.getEntryGate(), ticket.getEntryTime(), null);
+    }
+
+    private long minutesParked(ActiveTicket ticket) {
+        return Duration.between(ticket.entryTime(), LocalDateTime.now())
+                .toMinutes();
+    }
 
-            // Double-check status in DB
-            Optional<ParkingSlot> fresh = parkingSlotRepository.findById(parkingSlot.getId());
-            if (fresh.isPresent() && fresh.get()
-                    .getStatus() == SlotStatus.FREE) {
-                parkingSlot.setStatus(SlotStatus.OCCUPIED);
-                parkingSlotRepository.save(parkingSlot);
+    private long fareMinor(ActiveTicket ticket, long minutes) {
+        long start = System.nanoTime();
+        long fareMinor = pricingStrategy.calculateFareMinor(ticket.vehicleType(), ticket.entryGate(), ticket.entryTime(), minutes);
+        metrics.recordFareQuote(ticket.vehicleType(), start);
+        return fareMinor;
+    }
 
-                // Remove from all heaps (so other gates won't allocate it)
-                removeFromOtherHeaps(parkingSlot);
-                return parkingSlot;
+    /**
+     * Allocates nearest free slot for given gate & vehicle type, moving it to {@code status},
+     * and returns the in-memory slot. The in-memory claim is undone if the surrounding transaction rolls back.
+     */
+    private ParkingSlot allocateSlot(Gate gate, VehicleType type, SlotStatus status) {
+        long start = System.nanoTime();
+        ParkingSlot claimed;
+        while ((claimed = slotAllocator.claim(gate, type)) != null) {
+            // One conditional UPDATE; a slot taken out of service in the DB stays claimed in memory
+            if (parkingSlotRepository.compareAndSetStatus(claimed.getId(), SlotStatus.FREE, status) == 1) {
+                releaseOnRollback(claimed);
+                metrics.recordAllocation(gate, type, start, true);
+                return claimed;
             }
+            metrics.staleClaim(gate, type);
         }
+        metrics.recordAllocation(gate, type, start, false);
         return null; // No slot available
     }
 
     /**
-     * Remove slot from all heaps after allocation
+     * Allocates up to {@code count} nearest free slots, taking each with the same conditional update as a single entry.
      */
-    private void removeFromOtherHeaps(ParkingSlot parkingSlot) {
-        for (Gate gate : Gate.values()) {
-            PriorityBlockingQueue<SlotDistance> gateHeap = gateHeaps.get(gate)
-                    .get(parkingSlot.getType());
-            gateHeap.removeIf(slotDistance -> slotDistance.getSlot()
-                    .getId()
-                    .equals(parkingSlot.getId()));
+    private List<ParkingSlot> allocateSlots(Gate gate, VehicleType type, int count) {
+        List<ParkingSlot> allocated = new ArrayList<>(count);
+        List<ParkingSlot> claimed;
+        while (allocated.size() < count
+                && !(claimed = slotAllocator.claim(gate, type, count - allocated.size())).isEmpty()) {
+            for (ParkingSlot slot : claimed) {
+                // A 0-row update means the slot left FREE in the DB; it stays claimed in memory
+                if (parkingSlotRepository.compareAndSetStatus(slot.getId(), SlotStatus.FREE, SlotStatus.OCCUPIED) == 1) {
+                    allocated.add(slot);
+                    releaseOnRollback(slot);
+                } else {
+                    metrics.staleClaim(gate, type);
+                }
+            }
         }
+        return allocated;
     }
 
     /**
-     * Frees a slot and re-adds to all gate heaps
+     * Frees a slot and hands it back to the allocator once the exit has committed
      */
-    private synchronized void releaseSlot(Ticket ticket) {
-        ParkingSlot parkingSlot = ticket.getSlot();
-        parkingSlot.setStatus(SlotStatus.FREE);
-        parkingSlotRepository.save(parkingSlot);
+    private void releaseSlot(Long slotId) {
+        // A slot an admin changed meanwhile keeps the admin's status
+        if (parkingSlotRepository.compareAndSetStatus(slotId, SlotStatus.OCCUPIED, SlotStatus.FREE) == 0) {
+            return;
+        }
+        releaseOnCommit(slotId);
+    }
+
+    private void releaseOnCommit(Long slotId) {
+        afterTransaction(status -> {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                slotAllocator.release(slotId);
+            }
+        });
+    }
+
+    private Gate parseGate(String entryGate) {
+        try {
+            return Gate.valueOf(entryGate);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new ParkingException("Unknown entry gate: " + entryGate, 400);
+        }
+    }
+
+    private String requirePlate(String plateNo) {
+        if (plateNo == null || plateNo.isBlank()) {
+            throw new ParkingException("Plate number is required", 400);
+        }
+        return plateNo;
+    }
+
+    private void exitPlateOnRollback(String plateNo) {
+        afterTransaction(status -> {
+            if (status != TransactionSynchronization.STATUS_COMMITTED) {
+                activePlates.exit(plateNo);
+            }
+        });
+    }
+
+    private void releaseOnRollback(ParkingSlot claimed) {
+        afterTransaction(status -> {
+            if (status != TransactionSynchronization.STATUS_COMMITTED) {
+                slotAllocator.release(claimed);
+            }
+        });
+    }
 
-        for (Gate gate : Gate.values()) {
-            int distance = distanceMap.getOrDefault(gate.name() + "_" + parkingSlot.getSlotNumber(), Integer.MAX_VALUE);
-            gateHeaps.get(gate)
-                    .get(parkingSlot.getType())
-                    .offer(new SlotDistance(parkingSlot, distance));
+    private void afterTransaction(IntConsumer callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(TransactionSynchronization.STATUS_COMMITTED);
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status);
+            }
+        });
+    }
+
+    private record SlotGroup(Gate gate, VehicleType type) {
     }
 }
@@ -1,32 +1,111 @@
 package com.example.parking.service;
 
+import com.example.parking.config.PricingProperties;
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.GateSurcharge;
 import com.example.parking.entity.PricingRule;
+import com.example.parking.entity.PricingTier;
+import com.example.parking.entity.PricingWindow;
 import com.example.parking.entity.VehicleType;
+import com.example.parking.event.PricingRulesChangedEvent;
 import com.example.parking.exception.ParkingException;
+import com.example.parking.repository.GateSurchargeRepository;
 import com.example.parking.repository.PricingRuleRepository;
+import com.example.parking.repository.PricingTierRepository;
+import com.example.parking.util.Money;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class PricingStrategy {
 
     private final PricingRuleRepository ruleRepo;
+    private final PricingTierRepository tierRepo;
+    private final GateSurchargeRepository surchargeRepo;
+    private final PricingProperties pricingProperties;
 
-    public PricingStrategy(PricingRuleRepository ruleRepo) {
+    // Immutable compiled snapshot, replaced wholesale whenever the rules change
+    private volatile Map<VehicleType, FareTable> fareTables = new EnumMap<>(VehicleType.class);
+
+    // Serializes reloads, so a reload that read older rules cannot publish after a newer one
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public PricingStrategy(PricingRuleRepository ruleRepo, PricingTierRepository tierRepo,
+                           GateSurchargeRepository surchargeRepo, PricingProperties pricingProperties) {
         this.ruleRepo = ruleRepo;
+        this.tierRepo = tierRepo;
+        this.surchargeRepo = surchargeRepo;
+        this.pricingProperties = pricingProperties;
+    }
+
+    /**
+     * Recompiles the fare tables on startup and after every admin change, one reload at a time.
+     */
+    @EventListener({ApplicationReadyEvent.class, PricingRulesChangedEvent.class})
+    public void reloadRules() {
+        reloadLock.lock();
+        try {
+            PricingWindow[] windows = windowByHourOfWeek();
+
+            long[] surcharges = new long[Gate.values().length];
+            for (GateSurcharge surcharge : surchargeRepo.findAll()) {
+                surcharges[surcharge.getGate()
+                        .ordinal()] = Money.ofUnits(surcharge.getAmount());
+            }
+
+            List<PricingTier> tiers = tierRepo.findAll();
+            Map<VehicleType, FareTable> snapshot = new EnumMap<>(VehicleType.class);
+            for (PricingRule rule : ruleRepo.findAll()) {
+                List<PricingTier> typeTiers = tiers.stream()
+                        .filter(tier -> tier.getVehicleType() == rule.getVehicleType())
+                        .toList();
+                snapshot.put(rule.getVehicleType(), FareTable.compile(rule, typeTiers, windows, surcharges));
+            }
+            fareTables = snapshot;
+        } finally {
+            reloadLock.unlock();
+        }
     }
 
-    public BigDecimal calculateFare(VehicleType type, long minutes) {
-        PricingRule rule = ruleRepo.findByVehicleType(type)
-                .orElseThrow(() -> new ParkingException("No pricing rule for type: " + type, 400));
+    public BigDecimal calculateFare(VehicleType type, Gate gate, LocalDateTime entryTime, long minutes) {
+        return Money.toBigDecimal(calculateFareMinor(type, gate, entryTime, minutes));
+    }
 
-        if (minutes <= rule.getFreeMinutes()) {
-            return BigDecimal.ZERO;
+    /**
+     * Fare in minor units, looked up in the compiled table of the vehicle type.
+     */
+    public long calculateFareMinor(VehicleType type, Gate gate, LocalDateTime entryTime, long minutes) {
+        FareTable fareTable = fareTables.get(type);
+        if (fareTable == null) {
+            throw new ParkingException("No pricing rule for type: " + type, 400);
         }
+        return fareTable.quote(gate, entryTime, minutes);
+    }
 
-        long chargeableMinutes = minutes - rule.getFreeMinutes();
-        long hours = (long) Math.ceil(chargeableMinutes / 60.0);
-        return BigDecimal.valueOf(hours * rule.getRatePerHour());
+    private PricingWindow[] windowByHourOfWeek() {
+        PricingWindow[] windows = new PricingWindow[FareTable.HOURS_PER_WEEK];
+        int nightStart = pricingProperties.getNightStartHour();
+        int nightEnd = pricingProperties.getNightEndHour();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            boolean weekend = pricingProperties.getWeekendDays()
+                    .contains(day);
+            for (int hour = 0; hour < 24; hour++) {
+                boolean night = nightStart <= nightEnd
+                        ? hour >= nightStart && hour < nightEnd
+                        : hour >= nightStart || hour < nightEnd;
+                windows[(day.getValue() - 1) * 24 + hour] = weekend ? PricingWindow.WEEKEND
+                        : night ? PricingWindow.NIGHT : PricingWindow.STANDARD;
+            }
+        }
+        return windows;
     }
 }
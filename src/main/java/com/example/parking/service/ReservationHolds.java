@@ -0,0 +1,175 @@
+package com.example.parking.service;
+
+import com.example.parking.config.ReservationProperties;
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.ParkingSlot;
+import com.example.parking.entity.Reservation;
+import com.example.parking.entity.ReservationStatus;
+import com.example.parking.entity.SlotStatus;
+import com.example.parking.entity.VehicleType;
+import com.example.parking.event.LotEvent;
+import com.example.parking.repository.ParkingSlotRepository;
+import com.example.parking.repository.ReservationRepository;
+import com.example.parking.util.TimerWheel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reservations currently holding a slot, and the timer wheel that lets them lapse.
+ * <p>
+ * A held slot is RESERVED in the database and claimed in the allocation index, so no gate
+ * can hand it out. Redeeming or cancelling takes the hold out of here in O(1); a hold
+ * nobody took by its deadline is expired by the wheel, which frees just that slot by id.
+ * The slot table is never scanned. Holds are loaded back from the database at startup.
+ */
+@Service
+@Slf4j
+public class ReservationHolds {
+
+    private final ReservationRepository reservationRepository;
+    private final ParkingSlotRepository parkingSlotRepository;
+    private final SlotAllocator slotAllocator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ReservationProperties properties;
+
+    private final TimerWheel<Hold> wheel;
+    // Reservation id -> its pending expiry
+    private final ConcurrentMap<Long, TimerWheel.Timeout<Hold>> holds = new ConcurrentHashMap<>();
+    // Plates with a hold, so a vehicle holds at most one slot at a time
+    private final Set<String> heldPlates = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reservation-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReservationHolds(ReservationRepository reservationRepository, ParkingSlotRepository parkingSlotRepository,
+                            SlotAllocator slotAllocator, ApplicationEventPublisher eventPublisher,
+                            TransactionTemplate transactionTemplate, ReservationProperties properties) {
+        this.reservationRepository = reservationRepository;
+        this.parkingSlotRepository = parkingSlotRepository;
+        this.slotAllocator = slotAllocator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.wheel = new TimerWheel<>(properties.getTick(), properties.getWheelSize(), System.nanoTime());
+    }
+
+    /**
+     * Re-arms the holds that were open at shutdown and starts expiring them; lapsed ones go on the first tick.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Reservation reservation : reservationRepository.findWithSlotByStatus(ReservationStatus.HELD)) {
+            heldPlates.add(reservation.getPlateNo());
+            hold(new Hold(reservation.getId(), reservation.getPlateNo(), reservation.getVehicleType(), reservation.getGate(),
+                    reservation.getSlot(), reservation.getHeldUntil(), System.nanoTime() + Duration.between(now, reservation.getHeldUntil())
+                    .toNanos()));
+        }
+        long tickMillis = Math.max(1, properties.getTick()
+                .toMillis());
+        ticker.scheduleWithFixedDelay(this::expireDue, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Marks the plate as holding a reservation; false if it already holds one.
+     */
+    public boolean claimPlate(String plateNo) {
+        return heldPlates.add(plateNo);
+    }
+
+    public void releasePlate(String plateNo) {
+        heldPlates.remove(plateNo);
+    }
+
+    /**
+     * Starts the hold's expiry countdown; call once the reservation has committed.
+     */
+    public void hold(Hold hold) {
+        holds.put(hold.reservationId(), wheel.schedule(hold, hold.deadlineNanos()));
+    }
+
+    /**
+     * Takes a hold out of the wheel for redemption or cancellation.
+     *
+     * @return the hold, or null if there is none or it is expiring right now
+     */
+    public Hold take(Long reservationId) {
+        TimerWheel.Timeout<Hold> timeout = reservationId == null ? null : holds.remove(reservationId);
+        if (timeout == null || !timeout.cancel()) {
+            return null;
+        }
+        return timeout.item();
+    }
+
+    /**
+     * Puts back a hold whose redemption or cancellation rolled back, with its original deadline.
+     */
+    public void restore(Hold hold) {
+        hold(hold);
+    }
+
+    @PreDestroy
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    private void expireDue() {
+        try {
+            wheel.expire(System.nanoTime(), this::expire);
+        } catch (RuntimeException e) {
+            // Keep the ticker alive; the holds left in the wheel expire on a later tick
+            log.warn("Could not expire reservations", e);
+        }
+    }
+
+    /**
+     * Frees the slot of a lapsed hold; runs on the ticker thread.
+     */
+    private void expire(Hold hold) {
+        holds.remove(hold.reservationId());
+        try {
+            Boolean freed = transactionTemplate.execute(status -> {
+                reservationRepository.compareAndSetStatus(hold.reservationId(), ReservationStatus.HELD, ReservationStatus.EXPIRED);
+                // A slot an admin changed meanwhile keeps the admin's status
+                if (parkingSlotRepository.compareAndSetStatus(hold.slot()
+                        .getId(), SlotStatus.RESERVED, SlotStatus.FREE) == 0) {
+                    return false;
+                }
+                eventPublisher.publishEvent(LotEvent.holdReleased(hold.slot()
+                        .getId()));
+                return true;
+            });
+            if (Boolean.TRUE.equals(freed)) {
+                slotAllocator.release(hold.slot());
+            }
+            heldPlates.remove(hold.plateNo());
+        } catch (RuntimeException e) {
+            // Still HELD in the database, so the next startup re-arms it
+            log.warn("Could not expire reservation {}", hold.reservationId(), e);
+        }
+    }
+
+    /**
+     * A slot held for a vehicle until {@code deadlineNanos} ({@code System.nanoTime()} time).
+     */
+    public record Hold(Long reservationId, String plateNo, VehicleType type, Gate gate, ParkingSlot slot,
+                       LocalDateTime heldUntil, long deadlineNanos) {
+    }
+}
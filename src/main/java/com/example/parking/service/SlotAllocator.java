@@ -0,0 +1,170 @@
+package com.example.parking.service;
+
+import com.example.parking.config.AllocationProperties;
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.ParkingSlot;
+import com.example.parking.entity.VehicleType;
+import com.example.parking.util.DistanceMatrix;
+import com.example.parking.util.SlotIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free slot allocation over the shared {@link SlotIndex}, and the single owner of that index.
+ * A slot belongs to whoever atomically clears its free bit, so gates and vehicle types
+ * never queue up behind a shared monitor.
+ * <p>
+ * Rebuilds and slot changes never touch the published index: the next one is built off to
+ * the side and swapped in atomically, so an entry in flight sees either the old or the new
+ * index, never a half-built or empty one.
+ * <p>
+ * With {@code app.allocation.sharded} each gate claims from the slots nearest to it first and
+ * steals from the nearest other shard only once its own are gone (see {@link SlotIndex}).
+ */
+@Service
+public class SlotAllocator {
+
+    private final DistanceMatrix distanceMatrix;
+    private final boolean sharded;
+
+    private final AtomicReference<SlotIndex> index = new AtomicReference<>(new SlotIndex(List.of(), (gate, slot) -> 0));
+
+    // Serializes rebuilds and slot changes; a rebuild reads the database while holding it
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    // Releases made while the next index is built, replayed onto it once it is published
+    private volatile Queue<Long> releasedDuringUpdate;
+
+    public SlotAllocator(DistanceMatrix distanceMatrix) {
+        this(distanceMatrix, false);
+    }
+
+    @Autowired
+    public SlotAllocator(DistanceMatrix distanceMatrix, AllocationProperties properties) {
+        this(distanceMatrix, properties.isSharded());
+    }
+
+    public SlotAllocator(DistanceMatrix distanceMatrix, boolean sharded) {
+        this.distanceMatrix = distanceMatrix;
+        this.sharded = sharded;
+    }
+
+    /**
+     * Builds a fresh index from the persisted slots and publishes it; only FREE slots are allocatable.
+     * After startup this is a recovery path; routine slot changes go through {@link #applyChanges}.
+     */
+    public void rebuild(Supplier<List<ParkingSlot>> slotSource) {
+        updateLock.lock();
+        try {
+            Queue<Long> released = new ConcurrentLinkedQueue<>();
+            releasedDuringUpdate = released;
+            SlotIndex next;
+            try {
+                next = new SlotIndex(slotSource.get(), (gate, slot) -> distanceMatrix.distance(gate, slot.getSlotNumber()), sharded);
+                index.set(next);
+            } finally {
+                releasedDuringUpdate = null;
+            }
+
+            // The source may have been read before these exits committed
+            for (Long slotId : released) {
+                next.release(slotId);
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Applies added, updated and removed slots as one incremental update of the index.
+     */
+    public void applyChanges(Collection<ParkingSlot> upserts, Collection<Long> removedIds) {
+        updateLock.lock();
+        try {
+            Queue<Long> released = new ConcurrentLinkedQueue<>();
+            releasedDuringUpdate = released;
+            SlotIndex next;
+            try {
+                next = index.get()
+                        .apply(upserts, removedIds);
+                index.set(next);
+            } finally {
+                releasedDuringUpdate = null;
+            }
+            next.migrateFree();
+
+            // These may have reached only the previous index's candidates
+            for (Long slotId : released) {
+                next.reexpose(slotId);
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Claims the nearest free slot for given gate & vehicle type, or null when none is left.
+     */
+    public ParkingSlot claim(Gate gate, VehicleType type) {
+        return index.get()
+                .claim(gate, type);
+    }
+
+    /**
+     * Claims up to {@code count} nearest free slots in one pass, nearest first.
+     */
+    public List<ParkingSlot> claim(Gate gate, VehicleType type, int count) {
+        return index.get()
+                .claim(gate, type, count);
+    }
+
+    /**
+     * Free slots of a vehicle type in the published index.
+     */
+    public int freeCount(VehicleType type) {
+        return index.get()
+                .freeCount(type);
+    }
+
+    /**
+     * Slots and free slots per floor & vehicle type in the published index.
+     */
+    public List<SlotIndex.FloorCount> floorCounts() {
+        return index.get()
+                .floorCounts();
+    }
+
+    /**
+     * Makes a claimed slot allocatable again from every gate. Releasing a free slot is a no-op.
+     */
+    public void release(ParkingSlot parkingSlot) {
+        release(parkingSlot.getId());
+    }
+
+    public void release(Long slotId) {
+        SlotIndex current = index.get();
+        current.release(slotId);
+
+        Queue<Long> released = releasedDuringUpdate;
+        if (released != null) {
+            released.add(slotId);
+        }
+
+        // An index published meanwhile may have been seeded before this release landed
+        SlotIndex latest;
+        while ((latest = index.get()) != current) {
+            if (!latest.release(slotId)) {
+                latest.reexpose(slotId);
+            }
+            current = latest;
+        }
+    }
+}
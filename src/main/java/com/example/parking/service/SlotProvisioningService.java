@@ -0,0 +1,147 @@
+package com.example.parking.service;
+
+import com.example.parking.dto.SlotBulkRequest;
+import com.example.parking.entity.ParkingSlot;
+import com.example.parking.entity.SlotStatus;
+import com.example.parking.event.LotEvent;
+import com.example.parking.exception.ParkingException;
+import com.example.parking.repository.ParkingSlotRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulk slot provisioning: a re-striping is persisted in one transaction and reaches the
+ * allocation index as one incremental update once it commits.
+ */
+@Service
+public class SlotProvisioningService {
+
+    private final ParkingSlotRepository repo;
+    private final SlotAllocator slotAllocator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WriteBehindPipeline writeBehind;
+
+    public SlotProvisioningService(ParkingSlotRepository repo, SlotAllocator slotAllocator,
+                                   ApplicationEventPublisher eventPublisher, WriteBehindPipeline writeBehind) {
+        this.repo = repo;
+        this.slotAllocator = slotAllocator;
+        this.eventPublisher = eventPublisher;
+        this.writeBehind = writeBehind;
+    }
+
+    @Transactional
+    public List<ParkingSlot> provision(SlotBulkRequest request) {
+        List<ParkingSlot> upserts = request.getUpserts();
+        Set<Long> deletes = new HashSet<>(request.getDeletes());
+
+        // 1. Every referenced slot must exist
+        Set<Long> referenced = new HashSet<>(deletes);
+        upserts.stream()
+                .map(ParkingSlot::getId)
+                .filter(Objects::nonNull)
+                .forEach(referenced::add);
+        Map<Long, ParkingSlot> existing = new HashMap<>();
+        repo.findAllById(referenced)
+                .forEach(slot -> existing.put(slot.getId(), slot));
+        for (Long id : referenced) {
+            if (!existing.containsKey(id)) {
+                throw new ParkingException("Slot not found: " + id, 404);
+            }
+        }
+
+        // 2. Slot numbers must stay unique, counting slots outside this batch
+        Set<String> numbers = new HashSet<>();
+        for (ParkingSlot slot : upserts) {
+            if (slot.getSlotNumber() == null || slot.getType() == null) {
+                throw new ParkingException("Slot needs a slotNumber and a type", 400);
+            }
+            if (slot.getId() != null && deletes.contains(slot.getId())) {
+                throw new ParkingException("Slot " + slot.getId() + " is both updated and deleted", 400);
+            }
+            if (!numbers.add(slot.getSlotNumber())) {
+                throw new ParkingException("Slot number appears more than once in batch: " + slot.getSlotNumber(), 400);
+            }
+        }
+        Set<Long> upsertIds = new HashSet<>(referenced);
+        upsertIds.removeAll(deletes);
+        for (ParkingSlot clash : repo.findBySlotNumberIn(numbers)) {
+            if (!upsertIds.contains(clash.getId()) && !deletes.contains(clash.getId())) {
+                throw new ParkingException("Slot with number " + clash.getSlotNumber() + " already exists", 400);
+            }
+        }
+
+        // 3. Rejected while an entry that is not written yet holds a changed slot; entries keep off them until it completes
+        writeBehind.beginSlotChange(referenced);
+        AtomicBoolean applied = new AtomicBoolean();
+        afterCompletion(() -> writeBehind.endSlotChange(referenced, applied.get()));
+
+        // 4. Delete first, so freed numbers can be reused within the batch
+        repo.deleteAllById(deletes);
+        repo.flush();
+
+        // 5. Create & update
+        List<ParkingSlot> toSave = new ArrayList<>(upserts.size());
+        for (ParkingSlot slot : upserts) {
+            if (slot.getId() == null) {
+                slot.setStatus(SlotStatus.FREE);
+                toSave.add(slot);
+            } else {
+                ParkingSlot current = existing.get(slot.getId());
+                current.setSlotNumber(slot.getSlotNumber());
+                current.setFloorNumber(slot.getFloorNumber());
+                current.setType(slot.getType());
+                if (slot.getStatus() != null) {
+                    current.setStatus(slot.getStatus());
+                }
+                toSave.add(current);
+            }
+        }
+        List<ParkingSlot> saved = repo.saveAll(toSave);
+
+        // 6. Update the index only once the changes are durable
+        afterCommit(() -> {
+            slotAllocator.applyChanges(saved, deletes);
+            applied.set(true);
+        });
+        eventPublisher.publishEvent(LotEvent.slotsChanged(saved, deletes));
+        return saved;
+    }
+
+    private void afterCompletion(Runnable callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.run();
+            }
+        });
+    }
+
+    private void afterCommit(Runnable callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                callback.run();
+            }
+        });
+    }
+}
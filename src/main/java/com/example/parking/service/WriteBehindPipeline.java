@@ -0,0 +1,613 @@
+package com.example.parking.service;
+
+import com.example.parking.config.WriteBehindProperties;
+import com.example.parking.dto.EntryRequest;
+import com.example.parking.dto.TicketResponse;
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.ParkingSlot;
+import com.example.parking.entity.SlotStatus;
+import com.example.parking.entity.Vehicle;
+import com.example.parking.entity.VehicleType;
+import com.example.parking.event.LotEvent;
+import com.example.parking.exception.ParkingException;
+import com.example.parking.repository.TicketRepository;
+import com.example.parking.repository.VehicleRepository;
+import com.example.parking.util.GroupCommitLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind mode for entries.
+ * <p>
+ * The slot is decided in memory, the ticket gets an id from a pre-reserved block of
+ * {@code ticket_seq}, and the entry is appended to a local {@link GroupCommitLog}. The gate
+ * is answered as soon as that group commit is durable. A background writer then inserts
+ * the tickets, marks their slots occupied and creates missing vehicles, one transaction
+ * per batch. Entries still in the journal at startup are replayed before traffic starts.
+ * <p>
+ * Until its batch is flushed an entry's slot is claimed in memory only and still FREE in the
+ * database. Index rebuilds overlay these claims (see {@link #withUnflushedClaims}), and admin
+ * changes to such a slot are rejected until it is written (see {@link #beginSlotChange}), so
+ * the flush never has to move an entry the gate has already answered. Should its slot still
+ * be taken, the entry fails rather than moving.
+ * <p>
+ * A batch that fails transiently (database unreachable, lock timeout) is retried until it
+ * passes. Any other failure is retried a few times, then the batch is split until the bad
+ * entries are isolated; those go to a dead-letter file so the entries behind them keep moving.
+ * An entry given up either way was already journaled as an ENTRY {@link LotEvent}, so an
+ * ENTRY_VOIDED event follows it.
+ */
+@Service
+@Slf4j
+public class WriteBehindPipeline {
+
+    // Must match the allocationSize of ticket_seq, so reserved blocks never overlap Hibernate's
+    private static final int TICKET_ID_BLOCK = 50;
+    // The journal is emptied once everything in it is in the database and it grew past this
+    private static final long JOURNAL_COMPACT_BYTES = 1 << 20;
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    private static final String OCCUPY_SLOT =
+            "update parking_slot set status = 'OCCUPIED', version = version + 1 where id = ? and status = 'FREE'";
+    private static final String SLOT_STATUS = "select status from parking_slot where id = ?";
+    private static final String INSERT_TICKET =
+            "insert into ticket (id, vehicle_id, slot_id, entry_gate, entry_time, status, active_plate) values (?, ?, ?, ?, ?, 'ACTIVE', ?)";
+
+    private final WriteBehindProperties properties;
+    private final TicketRepository ticketRepository;
+    private final VehicleRepository vehicleRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final SlotAllocator slotAllocator;
+    private final ActivePlateRegistry activePlates;
+    private final AvailabilityService availability;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BlockingQueue<EntryRecord> unwritten = new LinkedBlockingQueue<>();
+    // Tickets answered from memory that the writer has not committed yet
+    private final Map<Long, CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+    // Slots claimed by entries that are not in the database yet
+    private final Set<Long> unflushedSlots = ConcurrentHashMap.newKeySet();
+    // Slots an admin is changing; entries leave them alone until the index has the change
+    private final Map<Long, SlotChange> slotsUnderChange = new ConcurrentHashMap<>();
+
+    private GroupCommitLog journal;
+    private Thread writer;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean running;
+    // Journal records committed to the database; written by the writer thread only
+    private long written;
+
+    // Current block of reserved ticket ids; guarded by ticketIdLock
+    private final ReentrantLock ticketIdLock = new ReentrantLock();
+    private long nextTicketId;
+    private long ticketIdLimit;
+
+    public WriteBehindPipeline(WriteBehindProperties properties, TicketRepository ticketRepository,
+                               VehicleRepository vehicleRepository, JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate, ObjectMapper objectMapper, SlotAllocator slotAllocator,
+                               ActivePlateRegistry activePlates, AvailabilityService availability,
+                               ApplicationEventPublisher eventPublisher) {
+        this.properties = properties;
+        this.ticketRepository = ticketRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.slotAllocator = slotAllocator;
+        this.activePlates = activePlates;
+        this.availability = availability;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Replays journaled entries the database has not seen, then starts the writer.
+     * Must run after the slots exist and before the allocation index and lot journal are built.
+     * The lot journal is not recovered yet, so it cannot hear of entries the replay gives up;
+     * any settled entry means it must start over from the database.
+     *
+     * @return number of journaled entries missing from the database that the replay wrote or gave up
+     */
+    public int start() throws IOException, InterruptedException {
+        if (!isEnabled() || !started.compareAndSet(false, true)) {
+            return 0;
+        }
+        journal = new GroupCommitLog(Path.of(properties.getJournalFile()), properties.getGroupCommitSize());
+
+        // 1. Replay what the previous run journaled but did not write
+        List<EntryRecord> journaled = new ArrayList<>();
+        int replayed = 0;
+        int settled = 0;
+        for (byte[] bytes : journal.recovered()) {
+            journaled.add(objectMapper.readValue(bytes, EntryRecord.class));
+        }
+        for (int from = 0; from < journaled.size(); from += properties.getFlushBatchSize()) {
+            List<EntryRecord> batch = journaled.subList(from, Math.min(journaled.size(), from + properties.getFlushBatchSize()));
+            Set<Long> existing = new HashSet<>();
+            ticketRepository.findAllById(batch.stream()
+                            .map(EntryRecord::ticketId)
+                            .toList())
+                    .forEach(ticket -> existing.add(ticket.getId()));
+            List<EntryRecord> missing = batch.stream()
+                    .filter(record -> !existing.contains(record.ticketId()))
+                    .toList();
+            List<EntryRecord> failed = writeWithRetry(missing, true);
+            failed.forEach(record -> log.error("Replayed entry of {} (ticket {}) lost slot {} before it was written",
+                    record.plateNo(), record.ticketId(), record.slotId()));
+            replayed += missing.size() - failed.size();
+            settled += missing.size();
+        }
+        if (!journaled.isEmpty()) {
+            long maxTicketId = journaled.stream()
+                    .mapToLong(EntryRecord::ticketId)
+                    .max()
+                    .getAsLong();
+            log.info("Replayed {} journaled entries, {} of them missing from the database", journaled.size(), replayed);
+            // New ids, ours and Hibernate's, must start past the replayed ones; never move the sequence back,
+            // the database may already hold higher ids from blocks handed out after these entries
+            long next = jdbcTemplate.queryForObject("select next value for ticket_seq", Long.class);
+            if (maxTicketId >= next) {
+                jdbcTemplate.execute("alter sequence ticket_seq restart with " + (maxTicketId + 1));
+            }
+        }
+        journal.truncate(0)
+                .join();
+
+        // 2. Start writing behind
+        running = true;
+        writer = new Thread(this::writeLoop, "write-behind-writer");
+        writer.setDaemon(true);
+        writer.start();
+        return settled;
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.join(properties.getPersistTimeout()
+                .toMillis());
+        journal.close();
+    }
+
+    /**
+     * Holds a claimed slot for an entry until it is written, unless an admin is changing the slot.
+     * The claim is then left to that change, which decides the slot's state, and the caller
+     * claims another.
+     *
+     * @return false if the slot is being changed
+     */
+    public boolean hold(Long slotId) {
+        // Held before checking, and the admin side the other way round, so one of the two always backs off
+        unflushedSlots.add(slotId);
+        if (slotsUnderChange.computeIfPresent(slotId, (id, change) -> change.skipped()) != null) {
+            unflushedSlots.remove(slotId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Keeps entries off slots an admin is about to change, until {@link #endSlotChange}.
+     * Rejected with 409 if an entry that is not written yet holds one of them.
+     */
+    public void beginSlotChange(Collection<Long> slotIds) {
+        slotIds.forEach(slotId -> slotsUnderChange.merge(slotId, new SlotChange(), SlotChange::join));
+        for (Long slotId : slotIds) {
+            if (unflushedSlots.contains(slotId)) {
+                endSlotChange(slotIds, false);
+                throw new ParkingException("Slot " + slotId + " is held by an entry that is still being recorded, please retry", 409);
+            }
+        }
+    }
+
+    /**
+     * Lets entries take the slots again. A slot an entry skipped meanwhile is still claimed in
+     * the index; unless the change reached the index, which then decides, it is released.
+     *
+     * @param applied the change was applied to the allocation index
+     */
+    public void endSlotChange(Collection<Long> slotIds, boolean applied) {
+        List<Long> released = new ArrayList<>();
+        for (Long slotId : slotIds) {
+            slotsUnderChange.computeIfPresent(slotId, (id, change) -> {
+                change.applied |= applied;
+                if (--change.count > 0) {
+                    return change;
+                }
+                if (change.skipped && !change.applied) {
+                    released.add(id);
+                }
+                return null;
+            });
+        }
+        released.forEach(slotAllocator::release);
+    }
+
+    /**
+     * Issues the ticket for a slot claimed and {@linkplain #hold held} for it. Returns once the entry is durable in the journal.
+     */
+    public TicketResponse admit(EntryRequest entryRequest, ParkingSlot parkingSlot, Gate entryGate) {
+        EntryRecord record = new EntryRecord(nextTicketId(), entryRequest.getPlateNo(), entryRequest.getVehicleType(),
+                entryRequest.getOwnerName(), parkingSlot.getId(), entryGate, LocalDateTime.now());
+        pending.put(record.ticketId(), new CompletableFuture<>());
+        try {
+            awaitDurable(journal.append(objectMapper.writeValueAsBytes(record)));
+        } catch (IOException | ExecutionException e) {
+            pending.remove(record.ticketId());
+            unflushedSlots.remove(record.slotId());
+            log.error("Could not journal entry of {}", record.plateNo(), e);
+            throw new ParkingException("Entry could not be recorded, please retry", 503);
+        }
+        unwritten.add(record);
+        return new TicketResponse(record.ticketId(), record.plateNo(), parkingSlot.getSlotNumber(), record.entryTime());
+    }
+
+    /**
+     * Waits for an append without giving up on an interrupt: once handed to the journal the record
+     * may become durable and be replayed, so it must be written even if the caller stops waiting.
+     * The interrupt is restored afterwards.
+     */
+    private static void awaitDurable(CompletableFuture<Void> append) throws ExecutionException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    append.get();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread()
+                        .interrupt();
+            }
+        }
+    }
+
+    /**
+     * Waits until a ticket answered from memory is in the database; returns at once for any other ticket.
+     */
+    public void awaitWritten(Long ticketId) {
+        CompletableFuture<Void> written = ticketId == null ? null : pending.get(ticketId);
+        if (written == null) {
+            return;
+        }
+        try {
+            written.get(properties.getPersistTimeout()
+                    .toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ParkingException failure) {
+                throw failure;
+            }
+            throw new ParkingException("Ticket is still being recorded, please retry", 503);
+        } catch (TimeoutException e) {
+            throw new ParkingException("Ticket is still being recorded, please retry", 503);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            throw new ParkingException("Ticket is still being recorded, please retry", 503);
+        }
+    }
+
+    /**
+     * The slots as the allocation index must see them: a slot held by an entry that is not
+     * flushed yet is FREE in the database but taken, so it is handed over as an OCCUPIED copy.
+     * A claim made after this returns is still caught by the flush, which re-checks the status.
+     */
+    public List<ParkingSlot> withUnflushedClaims(List<ParkingSlot> slots) {
+        if (unflushedSlots.isEmpty()) {
+            return slots;
+        }
+        List<ParkingSlot> overlaid = new ArrayList<>(slots.size());
+        for (ParkingSlot slot : slots) {
+            if (slot.getStatus() == SlotStatus.FREE && unflushedSlots.contains(slot.getId())) {
+                ParkingSlot claimed = new ParkingSlot(slot.getSlotNumber(), slot.getFloorNumber(), slot.getType(), SlotStatus.OCCUPIED);
+                claimed.setId(slot.getId());
+                claimed.setVersion(slot.getVersion());
+                overlaid.add(claimed);
+            } else {
+                overlaid.add(slot);
+            }
+        }
+        return overlaid;
+    }
+
+    private long nextTicketId() {
+        // Callers wait here while one of them reserves the next block from the database
+        ticketIdLock.lock();
+        try {
+            if (nextTicketId == ticketIdLimit) {
+                // pooled-lo: one nextval reserves [value, value + block)
+                nextTicketId = jdbcTemplate.queryForObject("select next value for ticket_seq", Long.class);
+                ticketIdLimit = nextTicketId + TICKET_ID_BLOCK;
+            }
+            return nextTicketId++;
+        } finally {
+            ticketIdLock.unlock();
+        }
+    }
+
+    private void writeLoop() {
+        List<EntryRecord> batch = new ArrayList<>(properties.getFlushBatchSize());
+        while (running || !unwritten.isEmpty()) {
+            try {
+                EntryRecord first = unwritten.poll(properties.getFlushInterval()
+                        .toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    compactJournal();
+                    continue;
+                }
+                batch.add(first);
+                unwritten.drainTo(batch, properties.getFlushBatchSize() - 1);
+                Set<EntryRecord> unplaced = new HashSet<>(writeWithRetry(batch, false));
+                written += batch.size();
+                batch.forEach(record -> {
+                    unflushedSlots.remove(record.slotId());
+                    CompletableFuture<Void> done = pending.remove(record.ticketId());
+                    if (unplaced.contains(record)) {
+                        log.error("Entry of {} (ticket {}) lost slot {} before it was written",
+                                record.plateNo(), record.ticketId(), record.slotId());
+                        voidEntry(record, slotStatus(record.slotId()));
+                        undoEntry(record, done, "its slot was taken");
+                    } else if (done != null) {
+                        done.complete(null);
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch until it passes, splitting it to dead-letter the entries that never will.
+     * The entries are safe in the journal meanwhile.
+     *
+     * @return the entries that were not written because their slot was taken
+     */
+    private List<EntryRecord> writeWithRetry(List<EntryRecord> batch, boolean replay) throws InterruptedException {
+        long backoffMillis = Math.max(100, properties.getFlushInterval()
+                .toMillis());
+        int failures = 0;
+        while (true) {
+            try {
+                return write(batch);
+            } catch (RuntimeException e) {
+                if (!isTransient(e) && ++failures >= properties.getMaxAttempts()) {
+                    if (batch.size() == 1) {
+                        deadLetter(batch.get(0), e, replay);
+                        return List.of();
+                    }
+                    // Split to isolate the bad entries; the halves keep their order
+                    log.error("Write-behind flush of {} entries failed {} times, splitting it", batch.size(), failures, e);
+                    int half = batch.size() / 2;
+                    List<EntryRecord> unplaced = new ArrayList<>(writeWithRetry(batch.subList(0, half), replay));
+                    unplaced.addAll(writeWithRetry(batch.subList(half, batch.size()), replay));
+                    return unplaced;
+                }
+                log.warn("Write-behind flush of {} entries failed, retrying", batch.size(), e);
+                Thread.sleep(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Failures that pass on their own once the database is reachable or the lock is free again.
+     */
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    /**
+     * Sets aside an entry that can never be written, with its error, and undoes it in memory.
+     * Its transaction rolled back, so its slot is still FREE in the database and goes back to the index.
+     */
+    private void deadLetter(EntryRecord record, RuntimeException cause, boolean replay) {
+        log.error("Entry of {} (ticket {}) cannot be written, dead-lettered", record.plateNo(), record.ticketId(), cause);
+        try {
+            byte[] line = (objectMapper.writeValueAsString(new DeadLetter(record, String.valueOf(cause), LocalDateTime.now())) + "\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            Files.write(Path.of(properties.getDeadLetterFile()), line,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+        } catch (IOException e) {
+            log.error("Could not dead-letter entry {}", record, e);
+        }
+        if (replay) {
+            // Nothing of it is in memory yet: plates, gate counts & the index are loaded after the replay
+            return;
+        }
+        unflushedSlots.remove(record.slotId());
+        slotAllocator.release(record.slotId());
+        voidEntry(record, SlotStatus.FREE);
+        undoEntry(record, pending.remove(record.ticketId()), "it could not be written");
+    }
+
+    /**
+     * Undoes an answered entry that did not make it to the database: fare & exit report it, and
+     * the plate and gate count are released.
+     */
+    private void undoEntry(EntryRecord record, CompletableFuture<Void> done, String reason) {
+        activePlates.exit(record.plateNo());
+        availability.exited(record.entryGate());
+        if (done != null) {
+            done.completeExceptionally(new ParkingException("Ticket " + record.ticketId() + " was not recorded: " + reason, 409));
+        }
+    }
+
+    /**
+     * Journals that an answered entry was given up, so the lot journal does not keep its slot OCCUPIED.
+     * Not for replayed entries: the lot journal is rebuilt from the database after a replay.
+     *
+     * @param slotStatus the status the slot is left in, or null if it no longer exists
+     */
+    private void voidEntry(EntryRecord record, SlotStatus slotStatus) {
+        try {
+            eventPublisher.publishEvent(LotEvent.entryVoided(record.ticketId(), record.plateNo(), record.slotId(), slotStatus));
+        } catch (RuntimeException e) {
+            // The writer must keep going; the lot journal catches up on its next rebuild from the database
+            log.error("Could not journal the voided entry of {} (ticket {})", record.plateNo(), record.ticketId(), e);
+        }
+    }
+
+    /**
+     * The status of a slot taken from under an entry, as the change outside the app left it.
+     * Assumed still OCCUPIED if the database cannot say.
+     */
+    private SlotStatus slotStatus(long slotId) {
+        try {
+            List<SlotStatus> status = jdbcTemplate.query(SLOT_STATUS, (rs, row) -> SlotStatus.valueOf(rs.getString(1)), slotId);
+            return status.isEmpty() ? null : status.get(0);
+        } catch (RuntimeException e) {
+            log.warn("Could not read the status of slot {}", slotId, e);
+            return SlotStatus.OCCUPIED;
+        }
+    }
+
+    /**
+     * Writes one batch of entries in a single transaction.
+     *
+     * @return the entries that were not written because their slot was taken
+     */
+    private List<EntryRecord> write(List<EntryRecord> batch) {
+        if (batch.isEmpty()) {
+            return List.of();
+        }
+        return transactionTemplate.execute(status -> {
+            // 1. Fetch or create the vehicles
+            Map<String, Vehicle> vehicles = new HashMap<>();
+            vehicleRepository.findByPlateNoIn(batch.stream()
+                            .map(EntryRecord::plateNo)
+                            .toList())
+                    .forEach(vehicle -> vehicles.put(vehicle.getPlateNo(), vehicle));
+            List<Vehicle> newVehicles = new ArrayList<>();
+            for (EntryRecord record : batch) {
+                vehicles.computeIfAbsent(record.plateNo(), plateNo -> {
+                    Vehicle vehicle = new Vehicle(plateNo, record.vehicleType(), record.ownerName());
+                    newVehicles.add(vehicle);
+                    return vehicle;
+                });
+            }
+            vehicleRepository.saveAllAndFlush(newVehicles);
+
+            // 2. Mark the slots occupied; admin changes wait for the flush, so only a change made outside the app takes one
+            int[][] counts = jdbcTemplate.batchUpdate(OCCUPY_SLOT, batch, batch.size(),
+                    (ps, record) -> ps.setLong(1, record.slotId()));
+            List<EntryRecord> placed = new ArrayList<>(batch.size());
+            List<EntryRecord> unplaced = new ArrayList<>();
+            int i = 0;
+            for (int[] chunk : counts) {
+                for (int count : chunk) {
+                    EntryRecord record = batch.get(i++);
+                    (count != 0 ? placed : unplaced).add(record);
+                }
+            }
+
+            // 3. Insert the tickets with their pre-assigned ids
+            jdbcTemplate.batchUpdate(INSERT_TICKET, placed, placed.size(), (ps, record) -> {
+                ps.setLong(1, record.ticketId());
+                ps.setLong(2, vehicles.get(record.plateNo())
+                        .getId());
+                ps.setLong(3, record.slotId());
+                ps.setString(4, record.entryGate()
+                        .name());
+                ps.setTimestamp(5, Timestamp.valueOf(record.entryTime()));
+                ps.setString(6, record.plateNo());
+            });
+            return unplaced;
+        });
+    }
+
+    private void compactJournal() {
+        try {
+            if (written == journal.durableCount() && journal.size() > JOURNAL_COMPACT_BYTES) {
+                journal.truncate(written);
+            }
+        } catch (IOException e) {
+            log.warn("Could not compact the entry journal", e);
+        }
+    }
+
+    /**
+     * One journaled entry; everything needed to write its vehicle, slot and ticket rows.
+     */
+    record EntryRecord(long ticketId, String plateNo, VehicleType vehicleType, String ownerName,
+                       long slotId, Gate entryGate, LocalDateTime entryTime) {
+    }
+
+    /**
+     * Admin changes in flight on one slot, and whether an entry skipped it meanwhile.
+     * Only touched inside the map's compute functions.
+     */
+    private static final class SlotChange {
+        private int count = 1;
+        private boolean applied;
+        private boolean skipped;
+
+        SlotChange join(SlotChange other) {
+            count += other.count;
+            return this;
+        }
+
+        SlotChange skipped() {
+            skipped = true;
+            return this;
+        }
+    }
+
+    /**
+     * One line of the dead-letter file.
+     */
+    record DeadLetter(EntryRecord entry, String error, LocalDateTime at) {
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.parking.util;
+
+import com.example.parking.entity.Gate;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dense gate -> slot distance table.
+ * <p>
+ * Slot numbers resolve to a column index, and distances live in one row-major
+ * {@link IntBuffer} (gate x column), so a lookup neither concatenates keys nor boxes values.
+ * Both are either on-heap or memory-mapped from a {@link DistanceMatrixFile}.
+ * 100k slots x 50 gates is ~20 MB. Missing pairs read as {@link #UNKNOWN}.
+ */
+public class DistanceMatrix {
+
+    public static final int UNKNOWN = Integer.MAX_VALUE;
+
+    private final Columns columns;
+    private final int gateCount;
+    private final IntBuffer distances;
+
+    DistanceMatrix(Columns columns, int gateCount, IntBuffer distances) {
+        this.columns = columns;
+        this.gateCount = gateCount;
+        this.distances = distances;
+    }
+
+    /**
+     * Column of the slot number, or -1 if the layout has no distances for it.
+     */
+    public int indexOf(String slotNumber) {
+        return columns.indexOf(slotNumber);
+    }
+
+    public int distance(Gate gate, int column) {
+        if (column < 0) {
+            return UNKNOWN;
+        }
+        return distances.get(gate.ordinal() * columns.size() + column);
+    }
+
+    public int distance(Gate gate, String slotNumber) {
+        return distance(gate, indexOf(slotNumber));
+    }
+
+    public int slotCount() {
+        return columns.size();
+    }
+
+    int gateCount() {
+        return gateCount;
+    }
+
+    String slotNumber(int column) {
+        return columns.slotNumber(column);
+    }
+
+    IntBuffer distances() {
+        return distances.duplicate()
+                .rewind();
+    }
+
+    /**
+     * Slot number <-> column mapping.
+     */
+    interface Columns {
+
+        /**
+         * Column of the slot number, or -1 if there is none.
+         */
+        int indexOf(String slotNumber);
+
+        String slotNumber(int column);
+
+        int size();
+    }
+
+    /**
+     * On-heap columns, hashed by slot number.
+     */
+    private record HashedColumns(String[] slotNumbers, Map<String, Integer> index) implements Columns {
+
+        @Override
+        public int indexOf(String slotNumber) {
+            Integer column = index.get(slotNumber);
+            return column == null ? -1 : column;
+        }
+
+        @Override
+        public String slotNumber(int column) {
+            return slotNumbers[column];
+        }
+
+        @Override
+        public int size() {
+            return slotNumbers.length;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Accumulates entries in any order; rows grow as new slot numbers are interned.
+     */
+    public static class Builder {
+        private final Map<String, Integer> columns = new HashMap<>();
+        private String[] slotNumbers = new String[64];
+        private int[][] rows = newRows(64);
+
+        public Builder put(Gate gate, String slotNumber, int distance) {
+            Integer column = columns.get(slotNumber);
+            if (column == null) {
+                column = columns.size();
+                columns.put(slotNumber, column);
+                if (column == slotNumbers.length) {
+                    grow();
+                }
+                slotNumbers[column] = slotNumber;
+            }
+            rows[gate.ordinal()][column] = distance;
+            return this;
+        }
+
+        public DistanceMatrix build() {
+            int slots = columns.size();
+            int[] flat = new int[rows.length * slots];
+            for (int g = 0; g < rows.length; g++) {
+                System.arraycopy(rows[g], 0, flat, g * slots, slots);
+            }
+            return new DistanceMatrix(new HashedColumns(Arrays.copyOf(slotNumbers, slots), Map.copyOf(columns)), rows.length,
+                    IntBuffer.wrap(flat));
+        }
+
+        private void grow() {
+            int capacity = slotNumbers.length * 2;
+            slotNumbers = Arrays.copyOf(slotNumbers, capacity);
+            int[][] grown = newRows(capacity);
+            for (int g = 0; g < grown.length; g++) {
+                System.arraycopy(rows[g], 0, grown[g], 0, rows[g].length);
+            }
+            rows = grown;
+        }
+
+        private static int[][] newRows(int capacity) {
+            int[][] rows = new int[Gate.values().length][capacity];
+            for (int[] row : rows) {
+                Arrays.fill(row, UNKNOWN);
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.parking.util;
+
+import com.example.parking.entity.Gate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compiled binary sidecar of a {@link DistanceMatrix}.
+ * <p>
+ * Layout (big-endian): magic, format version, source length, source last-modified,
+ * gate count, slot count, name table bytes, CRC32 of the body, CRC32 of the header so far;
+ * then the body: the slot numbers sorted by their UTF-8 bytes as a name table (slot count + 1
+ * int offsets, then the bytes, padded to 4), followed by the gate x slot distance matrix as
+ * ints with columns in name-table order. The file is memory-mapped on load and slot numbers
+ * are binary-searched in place, so neither the names nor the matrix are parsed or copied.
+ * Only the header is checked on every load; the body checksum costs a read of every page.
+ */
+public final class DistanceMatrixFile {
+
+    private static final int MAGIC = 0x50444d58; // "PDMX"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4 + 4 + 8 + 8;
+
+    private DistanceMatrixFile() {
+    }
+
+    /**
+     * Writes the matrix next to its source fingerprint; the file is replaced atomically.
+     */
+    public static void write(DistanceMatrix matrix, Path file, long sourceLength, long sourceLastModified) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+
+        // 1. Sort the columns by slot number bytes, the order lookups binary-search in
+        int slots = matrix.slotCount();
+        byte[][] names = new byte[slots][];
+        for (int column = 0; column < slots; column++) {
+            names[column] = matrix.slotNumber(column)
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+        Integer[] order = new Integer[slots];
+        Arrays.setAll(order, column -> column);
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(names[a], names[b]));
+
+        // 2. Write the body behind a placeholder header
+        CRC32 crc = new CRC32();
+        int nameBytes = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new CheckedOutputStream(Files.newOutputStream(tmp), crc)))) {
+            out.write(new byte[HEADER_BYTES]);
+            out.flush();
+            crc.reset();
+
+            out.writeInt(0);
+            for (Integer column : order) {
+                nameBytes += names[column].length;
+                out.writeInt(nameBytes);
+            }
+            for (Integer column : order) {
+                out.write(names[column]);
+            }
+            out.write(new byte[padding(nameBytes)]);
+            for (Gate gate : Gate.values()) {
+                for (Integer column : order) {
+                    out.writeInt(matrix.distance(gate, column));
+                }
+            }
+        }
+
+        // 3. Fill in the header now that the body checksum is known
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(sourceLength)
+                    .putLong(sourceLastModified)
+                    .putInt(matrix.gateCount())
+                    .putInt(slots)
+                    .putInt(nameBytes)
+                    .putLong(crc.getValue())
+                    .putLong(headerCrc(header))
+                    .flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps a previously compiled matrix, or returns empty if the file is missing, was compiled
+     * from a different source, for a different gate set, or fails its header checks; with
+     * {@code verify} the body must also match its checksum.
+     */
+    public static Optional<DistanceMatrix> map(Path file, long sourceLength, long sourceLastModified, boolean verify) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) < HEADER_BYTES) {
+            return Optional.empty();
+        }
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        // 1. Header fingerprint: source, gate set, and a size that fits the counts
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                || buffer.getLong() != sourceLength || buffer.getLong() != sourceLastModified
+                || buffer.getInt() != Gate.values().length) {
+            return Optional.empty();
+        }
+        int slots = buffer.getInt();
+        int nameBytes = buffer.getInt();
+        long bodyCrc = buffer.getLong();
+        if (buffer.getLong() != headerCrc(buffer) || slots < 0 || nameBytes < 0) {
+            return Optional.empty();
+        }
+        int namesAt = HEADER_BYTES + 4 * (slots + 1);
+        int distancesAt = namesAt + nameBytes + padding(nameBytes);
+        if (buffer.capacity() != distancesAt + 4L * Gate.values().length * slots) {
+            return Optional.empty();
+        }
+
+        // 2. Body checksum, opt-in
+        if (verify) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(HEADER_BYTES, buffer.capacity() - HEADER_BYTES));
+            if (crc.getValue() != bodyCrc) {
+                return Optional.empty();
+            }
+        }
+
+        IntBuffer offsets = buffer.slice(HEADER_BYTES, namesAt - HEADER_BYTES)
+                .asIntBuffer();
+        if (offsets.get(0) != 0 || offsets.get(slots) != nameBytes) {
+            return Optional.empty();
+        }
+        SortedNames names = new SortedNames(offsets, buffer.slice(namesAt, nameBytes), slots);
+        IntBuffer distances = buffer.slice(distancesAt, buffer.capacity() - distancesAt)
+                .asIntBuffer();
+        return Optional.of(new DistanceMatrix(names, Gate.values().length, distances));
+    }
+
+    /**
+     * CRC32 of the header bytes before the header checksum itself.
+     */
+    private static long headerCrc(ByteBuffer header) {
+        CRC32 crc = new CRC32();
+        crc.update(header.slice(0, HEADER_BYTES - 8));
+        return crc.getValue();
+    }
+
+    private static int padding(int bytes) {
+        return -bytes & 3;
+    }
+
+    /**
+     * Mapped name table; the i-th name in byte order is column i.
+     */
+    private record SortedNames(IntBuffer offsets, ByteBuffer bytes, int size) implements DistanceMatrix.Columns {
+
+        @Override
+        public int indexOf(String slotNumber) {
+            byte[] key = slotNumber.getBytes(StandardCharsets.UTF_8);
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(mid, key);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public String slotNumber(int column) {
+            byte[] name = new byte[offsets.get(column + 1) - offsets.get(column)];
+            bytes.get(offsets.get(column), name);
+            return new String(name, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Compares the name in {@code column} with {@code key} byte by byte, unsigned.
+         */
+        private int compare(int column, byte[] key) {
+            int from = offsets.get(column);
+            int length = offsets.get(column + 1) - from;
+            for (int i = 0, n = Math.min(length, key.length); i < n; i++) {
+                int cmp = Byte.compareUnsigned(bytes.get(from + i), key[i]);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return length - key.length;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.parking.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only record log with group commit.
+ * <p>
+ * Appends from any number of threads are queued and written by one sync thread, which
+ * forces everything it drained with a single fsync; a burst of N records costs one
+ * {@code force()} instead of N. An append's future completes once its record is durable.
+ * <p>
+ * Records are framed as (length, CRC32, payload). Opening the log reads back every intact
+ * record and cuts off a torn or corrupt tail, which is what a crash mid-write leaves behind.
+ */
+public class GroupCommitLog implements Closeable {
+
+    private static final int FRAME_HEADER_BYTES = 4 + 4;
+
+    private final FileChannel channel;
+    private final int maxBatch;
+    private final List<byte[]> recovered;
+    private final BlockingQueue<Op> queue = new LinkedBlockingQueue<>();
+    private final Thread syncThread;
+
+    private volatile boolean closed;
+    // Records made durable since opening; written by the sync thread only
+    private volatile long durableCount;
+
+    public GroupCommitLog(Path file, int maxBatch) throws IOException {
+        if (file.toAbsolutePath()
+                .getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath()
+                    .getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.maxBatch = maxBatch;
+        this.recovered = readIntact();
+
+        this.syncThread = new Thread(this::syncLoop, "group-commit-" + file.getFileName());
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+
+    /**
+     * Records that were in the file when it was opened, oldest first.
+     */
+    public List<byte[]> recovered() {
+        return recovered;
+    }
+
+    public CompletableFuture<Void> append(byte[] record) {
+        return enqueue(new Op(record, -1));
+    }
+
+    /**
+     * Empties the log, but only if exactly {@code expectedDurableCount} records have become
+     * durable since opening, i.e. no record the caller has not accounted for would be lost.
+     */
+    public CompletableFuture<Void> truncate(long expectedDurableCount) {
+        return enqueue(new Op(null, expectedDurableCount));
+    }
+
+    public long durableCount() {
+        return durableCount;
+    }
+
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Makes every queued record durable, then closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            syncThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+        }
+        channel.close();
+    }
+
+    private CompletableFuture<Void> enqueue(Op op) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IOException("Log is closed"));
+        }
+        queue.add(op);
+        return op.done;
+    }
+
+    private void syncLoop() {
+        List<Op> batch = new ArrayList<>(maxBatch);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Op first = queue.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Op> batch) {
+        // Truncations split the batch; the records queued before one are forced first
+        int start = 0;
+        for (int i = 0; i <= batch.size(); i++) {
+            if (i < batch.size() && batch.get(i).record != null) {
+                continue;
+            }
+            List<Op> appends = batch.subList(start, i);
+            try {
+                writeAndForce(appends);
+                appends.forEach(op -> op.done.complete(null));
+            } catch (IOException e) {
+                appends.forEach(op -> op.done.completeExceptionally(e));
+            }
+            if (i < batch.size()) {
+                truncate(batch.get(i));
+            }
+            start = i + 1;
+        }
+    }
+
+    private void writeAndForce(List<Op> appends) throws IOException {
+        if (appends.isEmpty()) {
+            return;
+        }
+        int bytes = 0;
+        for (Op op : appends) {
+            bytes += FRAME_HEADER_BYTES + op.record.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        CRC32 crc = new CRC32();
+        for (Op op : appends) {
+            crc.reset();
+            crc.update(op.record);
+            buffer.putInt(op.record.length)
+                    .putInt((int) crc.getValue())
+                    .put(op.record);
+        }
+        buffer.flip();
+        long start = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // Drop the partial batch so later records do not land behind a corrupt frame
+            channel.truncate(start);
+            throw e;
+        }
+        durableCount += appends.size();
+    }
+
+    private void truncate(Op op) {
+        try {
+            if (durableCount == op.truncateIfCount) {
+                channel.truncate(0);
+                channel.force(true);
+            }
+            op.done.complete(null);
+        } catch (IOException e) {
+            op.done.completeExceptionally(e);
+        }
+    }
+
+    private List<byte[]> readIntact() throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Log too large to recover: " + size + " bytes");
+        }
+        ByteBuffer content = ByteBuffer.allocate((int) size);
+        while (content.hasRemaining()) {
+            if (channel.read(content, content.position()) < 0) {
+                break;
+            }
+        }
+        content.flip();
+
+        List<byte[]> records = new ArrayList<>();
+        CRC32 crc = new CRC32();
+        int validEnd = 0;
+        while (content.remaining() >= FRAME_HEADER_BYTES) {
+            int length = content.getInt();
+            int checksum = content.getInt();
+            if (length < 0 || length > content.remaining()) {
+                break;
+            }
+            byte[] record = new byte[length];
+            content.get(record);
+            crc.reset();
+            crc.update(record);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            records.add(record);
+            validEnd = content.position();
+        }
+
+        channel.truncate(validEnd);
+        channel.position(validEnd);
+        return List.copyOf(records);
+    }
+
+    private static final class Op {
+        private final byte[] record;
+        private final long truncateIfCount;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private Op(byte[] record, long truncateIfCount) {
+            this.record = record;
+            this.truncateIfCount = truncateIfCount;
+        }
+    }
+}
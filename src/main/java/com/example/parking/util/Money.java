@@ -0,0 +1,34 @@
+package com.example.parking.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amounts are carried as {@code long} minor units (paise) and only become
+ * {@link BigDecimal} at the DTO/entity boundary.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+    private static final long MINOR_PER_UNIT = 100;
+
+    private Money() {
+    }
+
+    public static long ofUnits(long units) {
+        return Math.multiplyExact(units, MINOR_PER_UNIT);
+    }
+
+    /**
+     * Converts to minor units; fractions of a paisa are dropped.
+     */
+    public static long toMinor(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.DOWN)
+                .unscaledValue()
+                .longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.parking.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of numbered records in fixed-size, memory-mapped segment files.
+ * <p>
+ * Appending is a copy into the mapped segment, so it survives a process crash as soon as it
+ * returns; {@link #force()} additionally flushes it to disk. Each record is framed as
+ * (sequence number, length, CRC32, payload). Segments are named after their first sequence
+ * number, so whole segments can be dropped once a snapshot covers them.
+ * <p>
+ * Reading a segment stops at the first frame that is out of sequence or fails its checksum;
+ * that is the end of the log. Opening zeroes whatever follows it in the active segment, so
+ * frames after a torn one can never reappear behind later appends.
+ */
+public class SegmentedLog implements Closeable {
+
+    private static final int FRAME_HEADER_BYTES = 8 + 4 + 4;
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentBytes;
+    // first sequence number -> segment file
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+
+    // Guards the segment files and the active mapping
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel activeChannel;
+    private MappedByteBuffer active;
+    private long lastSeq;
+
+    public SegmentedLog(Path directory, int segmentBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName()
+                            .toString()
+                            .endsWith(SUFFIX))
+                    .forEach(file -> segments.put(firstSeqOf(file), file));
+        }
+
+        if (segments.isEmpty()) {
+            openSegment(1);
+        } else {
+            Map.Entry<Long, Path> last = segments.lastEntry();
+            activeChannel = FileChannel.open(last.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            lastSeq = scan(active, last.getKey(), Long.MAX_VALUE, Long.MAX_VALUE, null);
+            zeroTail(active);
+        }
+    }
+
+    /**
+     * Appends one record and returns its sequence number.
+     */
+    public long append(byte[] payload) throws IOException {
+        lock.lock();
+        try {
+            int frameBytes = FRAME_HEADER_BYTES + payload.length;
+            if (frameBytes > segmentBytes) {
+                throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit a segment");
+            }
+            if (active.remaining() < frameBytes) {
+                active.force();
+                activeChannel.close();
+                openSegment(lastSeq + 1);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            active.putLong(lastSeq + 1)
+                    .putInt(payload.length)
+                    .putInt((int) crc.getValue())
+                    .put(payload);
+            return ++lastSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastSeq() {
+        lock.lock();
+        try {
+            return lastSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes appended records to disk.
+     */
+    public void force() {
+        lock.lock();
+        try {
+            active.force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Feeds every record after {@code afterSeq} to the consumer, oldest first.
+     */
+    public void replay(long afterSeq, ObjLongConsumer<byte[]> consumer) throws IOException {
+        replay(afterSeq, lastSeq(), consumer);
+    }
+
+    /**
+     * Feeds the records after {@code afterSeq} up to {@code throughSeq} to the consumer, oldest first.
+     * Appended records never change, so the lock is only held to list the segments and appends go on
+     * meanwhile; the caller must not delete segments concurrently.
+     */
+    public void replay(long afterSeq, long throughSeq, ObjLongConsumer<byte[]> consumer) throws IOException {
+        TreeMap<Long, Path> files;
+        lock.lock();
+        try {
+            files = new TreeMap<>(segments);
+        } finally {
+            lock.unlock();
+        }
+        for (Map.Entry<Long, Path> segment : files.entrySet()) {
+            Long nextFirst = files.higherKey(segment.getKey());
+            if (nextFirst != null && nextFirst - 1 <= afterSeq) {
+                continue; // fully covered
+            }
+            if (segment.getKey() > throughSeq) {
+                break;
+            }
+            try (FileChannel channel = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                ByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                scan(content, segment.getKey(), afterSeq, throughSeq, consumer);
+            }
+        }
+    }
+
+    /**
+     * Deletes the segments whose records all have a sequence number up to {@code seq}.
+     */
+    public void deleteThrough(long seq) throws IOException {
+        lock.lock();
+        try {
+            Long activeFirst = segments.lastKey();
+            for (Long first : segments.headMap(activeFirst, false)
+                    .keySet()
+                    .toArray(new Long[0])) {
+                if (segments.higherKey(first) - 1 <= seq) {
+                    Files.deleteIfExists(segments.remove(first));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            active.force();
+            activeChannel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Zeroes the segment from the buffer's position to its end and flushes it, leaving the position as is.
+     * Only bytes that are not zero yet are written, so untouched pages of the segment stay clean.
+     */
+    private static void zeroTail(MappedByteBuffer segment) {
+        int end = segment.limit();
+        int i = segment.position();
+        for (; i + 8 <= end; i += 8) {
+            if (segment.getLong(i) != 0) {
+                segment.putLong(i, 0);
+            }
+        }
+        for (; i < end; i++) {
+            segment.put(i, (byte) 0);
+        }
+        segment.force();
+    }
+
+    private void openSegment(long firstSeq) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", firstSeq, SUFFIX));
+        activeChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        segments.put(firstSeq, file);
+        lastSeq = firstSeq - 1;
+    }
+
+    /**
+     * Walks the intact frames of one segment up to {@code throughSeq}, leaving the buffer positioned after the last one.
+     *
+     * @return sequence number of the last intact record
+     */
+    private static long scan(ByteBuffer content, long firstSeq, long afterSeq, long throughSeq, ObjLongConsumer<byte[]> consumer) {
+        CRC32 crc = new CRC32();
+        long expected = firstSeq;
+        while (content.remaining() >= FRAME_HEADER_BYTES) {
+            int start = content.position();
+            long seq = content.getLong();
+            int length = content.getInt();
+            int checksum = content.getInt();
+            if (seq != expected || seq > throughSeq || length < 0 || length > content.remaining()) {
+                content.position(start);
+                break;
+            }
+            byte[] payload = new byte[length];
+            content.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                content.position(start);
+                break;
+            }
+            if (consumer != null && seq > afterSeq) {
+                consumer.accept(payload, seq);
+            }
+            expected++;
+        }
+        return expected - 1;
+    }
+
+    private static long firstSeqOf(Path file) {
+        String name = file.getFileName()
+                .toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,743 @@
+package com.example.parking.util;
+
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.ParkingSlot;
+import com.example.parking.entity.SlotStatus;
+import com.example.parking.entity.VehicleType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Shared nearest-free-slot index for all gates.
+ * <p>
+ * Slots get compact int ids. One bitset over those ids is the single source of truth for
+ * which slots are free; a slot is claimed by atomically clearing its bit. Each gate only
+ * keeps its ordering: the compact ids of every vehicle type sorted by distance, and a
+ * bitset over those ranks marking entries that may still be free. Memory is O(slots)
+ * plus one int and one bit per slot per gate, instead of a heap of objects per gate.
+ * <p>
+ * Candidate bits of a slot claimed through another gate are left set and skipped lazily
+ * the next time that gate scans past them. Releasing sets one bit per gate, no sifting.
+ * <p>
+ * In sharded mode every slot belongs to the gate nearest to it, and a gate's ordering lists
+ * its own shard first, then the other shards in steal order (nearest shard first), each
+ * nearest-first. Shards get contiguous compact ids, so while a gate has slots of its own
+ * its claims touch free bits no other gate is claiming; it only reaches into a neighbour's
+ * shard once its own is used up.
+ * <p>
+ * The orderings are immutable. Slot changes derive a new index with {@link #apply} that
+ * shares the free bits with this one, so claims and releases made against either index
+ * stay visible to both. A change of statuses only shares the orderings as well. Compact ids
+ * are never reused, since a release through the older index could still land on one; removed
+ * slots leave a hole instead, and once holes pass a quarter of the ids the change builds a
+ * fresh, dense index whose free slots are moved over after it is published.
+ */
+public class SlotIndex {
+
+    private static final LongBinaryOperator OR = (word, mask) -> word | mask;
+    private static final LongBinaryOperator AND_NOT = (word, mask) -> word & ~mask;
+
+    // apply compacts once more than 1/COMPACT_SHARE of the compact ids would be holes
+    private static final int COMPACT_SHARE = 4;
+
+    // Sharded ordering key: steal rank (enough bits for every gate) | distance (the rest up to bit 62) | compact id
+    private static final int STEAL_RANK_BITS = Math.max(1, 32 - Integer.numberOfLeadingZeros(Gate.values().length - 1));
+    private static final int STEAL_RANK_SHIFT = 63 - STEAL_RANK_BITS;
+    private static final int MAX_SHARDED_DISTANCE = (1 << (STEAL_RANK_SHIFT - 32)) - 1;
+
+    static {
+        // Distances are clamped to the field, so it has to stay wide enough to tell slots apart
+        if (STEAL_RANK_SHIFT - 32 < 16) {
+            throw new IllegalStateException(Gate.values().length + " gates leave too few bits for sharded distances");
+        }
+    }
+
+    private final ToIntBiFunction<Gate, ParkingSlot> distance;
+    private final FreeBits free;
+
+    // [compact id] -> slot, null once removed
+    private final ParkingSlot[] slots;
+    private final Map<Long, Integer> compactIds;
+    // Floor -> slot count per vehicle type ordinal; fixed per index, adjusted by apply
+    private final NavigableMap<Integer, int[]> totals;
+
+    // [gate][type] -> compact ids by ascending distance
+    private final int[][][] order;
+    // [gate][compact id] -> position of the slot within order[gate][its type]
+    private final int[][] rank;
+    // [gate][type] -> bit per rank, set while the slot may be free
+    private final AtomicLongArray[][] candidates;
+
+    // Sharded mode only, else null: [compact id] -> gate owning the slot
+    private final int[] owners;
+    // Sharded mode only: [gate][owning gate] -> position of that shard in the gate's steal order, 0 for its own
+    private final int[][] stealRank;
+
+    // Compacted by apply only, until migrateFree: the index compacted from, and [compact id] -> id there or -1
+    private SlotIndex compactedFrom;
+    private int[] previousIds;
+
+    public SlotIndex(List<ParkingSlot> slotList, ToIntBiFunction<Gate, ParkingSlot> distance) {
+        this(slotList, distance, false);
+    }
+
+    /**
+     * @param sharded give each gate the slots nearest to it and let it steal from the nearest
+     *                other shards only once its own are taken
+     */
+    public SlotIndex(List<ParkingSlot> slotList, ToIntBiFunction<Gate, ParkingSlot> distance, boolean sharded) {
+        this.distance = distance;
+        if (sharded) {
+            Shards shards = shard(slotList);
+            this.slots = shards.slots();
+            this.owners = shards.owners();
+            this.stealRank = shards.stealRank();
+        } else {
+            this.slots = slotList.toArray(new ParkingSlot[0]);
+            this.owners = null;
+            this.stealRank = null;
+        }
+        this.compactIds = new HashMap<>(slots.length * 2);
+        this.totals = new TreeMap<>();
+        this.free = new FreeBits(slots.length);
+
+        for (int id = 0; id < slots.length; id++) {
+            compactIds.put(slots[id].getId(), id);
+            addTotal(totals, slots[id], 1);
+            if (slots[id].getStatus() == SlotStatus.FREE) {
+                free.set(id, slots[id]);
+            }
+        }
+
+        int gates = Gate.values().length;
+        int types = VehicleType.values().length;
+        this.order = new int[gates][types][];
+        for (Gate gate : Gate.values()) {
+            for (VehicleType type : VehicleType.values()) {
+                order[gate.ordinal()][type.ordinal()] = sortedByDistance(gate, type, slots, owners, 0);
+            }
+        }
+        this.rank = new int[gates][slots.length];
+        this.candidates = new AtomicLongArray[gates][types];
+        indexOrders();
+    }
+
+    private SlotIndex(SlotIndex base, FreeBits free, ParkingSlot[] slots, Map<Long, Integer> compactIds,
+                      NavigableMap<Integer, int[]> totals, int[][][] order, int[] owners) {
+        this.distance = base.distance;
+        this.owners = owners;
+        this.stealRank = base.stealRank;
+        this.free = free;
+        this.slots = slots;
+        this.compactIds = compactIds;
+        this.totals = totals;
+        this.order = order;
+        this.rank = new int[order.length][slots.length];
+        this.candidates = new AtomicLongArray[order.length][VehicleType.values().length];
+        indexOrders();
+    }
+
+    /**
+     * Same orderings and candidates as {@code base}, with slot statuses updated in place.
+     */
+    private SlotIndex(SlotIndex base, ParkingSlot[] slots) {
+        this.distance = base.distance;
+        this.owners = base.owners;
+        this.stealRank = base.stealRank;
+        this.free = base.free;
+        this.slots = slots;
+        this.compactIds = base.compactIds;
+        this.totals = base.totals;
+        this.order = base.order;
+        this.rank = base.rank;
+        this.candidates = base.candidates;
+    }
+
+    /**
+     * Claims the nearest free slot for given gate & vehicle type, or null when none is left.
+     */
+    public ParkingSlot claim(Gate gate, VehicleType type) {
+        int[] gateOrder = order[gate.ordinal()][type.ordinal()];
+        AtomicLongArray gateCandidates = candidates[gate.ordinal()][type.ordinal()];
+
+        int r = nextSetBit(gateCandidates, 0);
+        while (r >= 0) {
+            // Clear the candidate first: a concurrent release re-sets it after freeing the slot
+            clearBit(gateCandidates, r);
+            int id = gateOrder[r];
+            if (free.clear(id, slots[id])) {
+                return slots[id];
+            }
+            r = nextSetBit(gateCandidates, r + 1);
+        }
+        return null; // No slot available
+    }
+
+    /**
+     * Claims up to {@code count} nearest free slots in a single scan of the gate ordering.
+     */
+    public List<ParkingSlot> claim(Gate gate, VehicleType type, int count) {
+        int[] gateOrder = order[gate.ordinal()][type.ordinal()];
+        AtomicLongArray gateCandidates = candidates[gate.ordinal()][type.ordinal()];
+
+        List<ParkingSlot> claimed = new ArrayList<>(count);
+        int r = count > 0 ? nextSetBit(gateCandidates, 0) : -1;
+        while (r >= 0) {
+            clearBit(gateCandidates, r);
+            int id = gateOrder[r];
+            if (free.clear(id, slots[id])) {
+                claimed.add(slots[id]);
+                if (claimed.size() == count) {
+                    break;
+                }
+            }
+            r = nextSetBit(gateCandidates, r + 1);
+        }
+        return claimed;
+    }
+
+    /**
+     * Marks a slot free again and re-exposes it at every gate.
+     *
+     * @return false if the slot is unknown to this index or already free
+     */
+    public boolean release(Long slotId) {
+        Integer id = compactIds.get(slotId);
+        if (id == null || !free.set(id, slots[id])) {
+            return false;
+        }
+        expose(id);
+        return true;
+    }
+
+    /**
+     * Re-exposes a free slot at every gate, e.g. after it was released through an older index.
+     */
+    public void reexpose(Long slotId) {
+        Integer id = compactIds.get(slotId);
+        if (id != null && free.isSet(id)) {
+            expose(id);
+        }
+    }
+
+    /**
+     * Derives an index with the given slots added, updated or removed.
+     * <p>
+     * A slot that keeps its number, type and floor keeps its compact id and only has its
+     * status applied; otherwise it is moved to a fresh id. If only statuses change, the
+     * orderings are shared; else surviving orderings are merged with the new entries instead
+     * of re-sorted, or, with too many holes, the index is compacted (see {@link #migrateFree}).
+     * Status changes take effect on this index as well, since the free bits are shared.
+     */
+    public SlotIndex apply(Collection<ParkingSlot> upserts, Collection<Long> removedIds) {
+        List<ParkingSlot> added = new ArrayList<>();
+        List<Integer> updated = new ArrayList<>();
+        boolean[] retired = new boolean[slots.length];
+        int retiring = 0;
+
+        // 1. Retire removed slots and slots whose position in the orderings changes
+        for (Long slotId : removedIds) {
+            Integer id = compactIds.get(slotId);
+            if (id != null && !retired[id]) {
+                retired[id] = true;
+                retiring++;
+            }
+        }
+        for (ParkingSlot slot : upserts) {
+            Integer id = compactIds.get(slot.getId());
+            if (id != null && !retired[id] && slots[id].getType() == slot.getType()
+                    && Objects.equals(slots[id].getSlotNumber(), slot.getSlotNumber())
+                    && slots[id].getFloorNumber() == slot.getFloorNumber()) {
+                updated.add(id);
+                continue;
+            }
+            if (id != null && !retired[id]) {
+                retired[id] = true;
+                retiring++;
+            }
+            added.add(slot);
+        }
+
+        // 2. Only statuses changed: keep the orderings and candidates, which the new index shares
+        if (added.isEmpty() && retiring == 0) {
+            ParkingSlot[] nextSlots = slots.clone();
+            for (ParkingSlot slot : upserts) {
+                nextSlots[compactIds.get(slot.getId())] = slot;
+            }
+            for (int id : updated) {
+                applyStatus(free, id, nextSlots[id]);
+                if (free.isSet(id)) {
+                    expose(id);
+                }
+            }
+            return new SlotIndex(this, nextSlots);
+        }
+
+        // 3. Retire for good, and compact instead once too many ids would be holes
+        for (int id = 0; id < retired.length; id++) {
+            if (retired[id]) {
+                free.retire(id, slots[id]);
+            }
+        }
+        Map<Integer, ParkingSlot> updatedById = new HashMap<>();
+        for (ParkingSlot slot : upserts) {
+            Integer id = compactIds.get(slot.getId());
+            if (id != null && !retired[id]) {
+                updatedById.put(id, slot);
+            }
+        }
+        int holes = slots.length - compactIds.size() + retiring;
+        if ((long) holes * COMPACT_SHARE > slots.length + added.size()) {
+            return compact(retired, updatedById, added);
+        }
+        Map<Long, Integer> nextIds = new HashMap<>(compactIds);
+        NavigableMap<Integer, int[]> nextTotals = new TreeMap<>();
+        totals.forEach((floor, byType) -> nextTotals.put(floor, byType.clone()));
+        for (int id = 0; id < retired.length; id++) {
+            if (retired[id]) {
+                nextIds.remove(slots[id].getId());
+                addTotal(nextTotals, slots[id], -1);
+            }
+        }
+        for (ParkingSlot slot : added) {
+            addTotal(nextTotals, slot, 1);
+        }
+
+        // 4. Lay out the surviving and the newly numbered slots
+        ParkingSlot[] nextSlots = Arrays.copyOf(slots, slots.length + added.size());
+        for (int id = 0; id < retired.length; id++) {
+            if (retired[id]) {
+                nextSlots[id] = null;
+            }
+        }
+        updatedById.forEach((id, slot) -> nextSlots[id] = slot);
+        for (int i = 0; i < added.size(); i++) {
+            int id = slots.length + i;
+            nextSlots[id] = added.get(i);
+            nextIds.put(added.get(i)
+                    .getId(), id);
+        }
+        FreeBits nextFree = free.ensureCapacity(nextSlots.length);
+        int[] nextOwners = null;
+        if (owners != null) {
+            // New slots join the shard of their nearest gate; the steal order stays as built
+            nextOwners = Arrays.copyOf(owners, nextSlots.length);
+            for (int id = slots.length; id < nextSlots.length; id++) {
+                nextOwners[id] = nearestGate(nextSlots[id], new int[order.length]);
+            }
+        }
+
+        // 5. Merge each ordering with its new entries
+        int[][][] nextOrder = new int[order.length][VehicleType.values().length][];
+        for (Gate gate : Gate.values()) {
+            for (VehicleType type : VehicleType.values()) {
+                int[] addedIds = sortedByDistance(gate, type, nextSlots, nextOwners, slots.length);
+                nextOrder[gate.ordinal()][type.ordinal()] = merge(gate, order[gate.ordinal()][type.ordinal()], retired,
+                        addedIds, nextSlots, nextOwners);
+            }
+        }
+
+        // 6. Apply statuses; the candidates of the new index are seeded from these bits
+        for (int id : updated) {
+            applyStatus(nextFree, id, nextSlots[id]);
+        }
+        for (int id = slots.length; id < nextSlots.length; id++) {
+            applyStatus(nextFree, id, nextSlots[id]);
+        }
+        return new SlotIndex(this, nextFree, nextSlots, nextIds, nextTotals, nextOrder, nextOwners);
+    }
+
+    /**
+     * Moves the free slots over from the index this one was compacted from by {@link #apply};
+     * a no-op for any other index. Run once, after publishing this index: each slot is retired
+     * in the old index as it moves, so a release through the old index from then on finds it
+     * retired there and lands here instead.
+     */
+    public void migrateFree() {
+        SlotIndex previous = compactedFrom;
+        if (previous == null) {
+            return;
+        }
+        for (int id = 0; id < previousIds.length; id++) {
+            int previousId = previousIds[id];
+            if (previousId >= 0 && previous.free.retire(previousId, previous.slots[previousId]) && free.set(id, slots[id])) {
+                expose(id);
+            }
+        }
+        compactedFrom = null;
+        previousIds = null;
+    }
+
+    public int freeCount(VehicleType type) {
+        return free.count(type);
+    }
+
+    /**
+     * Slots and free slots per floor & vehicle type, ordered by floor then type, read from
+     * counters only. Each count is read without stopping claims, so a row may be a few
+     * claims behind the others.
+     */
+    public List<FloorCount> floorCounts() {
+        List<FloorCount> counts = new ArrayList<>();
+        totals.forEach((floor, byType) -> {
+            for (VehicleType type : VehicleType.values()) {
+                if (byType[type.ordinal()] > 0) {
+                    counts.add(new FloorCount(floor, type, byType[type.ordinal()], free.count(floor, type)));
+                }
+            }
+        });
+        return counts;
+    }
+
+    private static void addTotal(NavigableMap<Integer, int[]> totals, ParkingSlot slot, int delta) {
+        totals.computeIfAbsent(slot.getFloorNumber(), f -> new int[VehicleType.values().length])[slot.getType()
+                .ordinal()] += delta;
+    }
+
+    /**
+     * A fresh index over the live slots with dense compact ids. Updated and added slots take
+     * their status now; the free bits of the others stay clear until {@link #migrateFree}.
+     */
+    private SlotIndex compact(boolean[] retired, Map<Integer, ParkingSlot> updatedById, List<ParkingSlot> added) {
+        List<ParkingSlot> live = new ArrayList<>(compactIds.size() + added.size());
+        for (int id = 0; id < slots.length; id++) {
+            if (slots[id] != null && !retired[id]) {
+                live.add(updatedById.getOrDefault(id, slots[id]));
+            }
+        }
+        live.addAll(added);
+        SlotIndex next = new SlotIndex(live, distance, owners != null);
+
+        int[] moved = new int[next.slots.length];
+        Arrays.fill(moved, -1);
+        for (int id = 0; id < slots.length; id++) {
+            if (slots[id] == null || retired[id]) {
+                continue;
+            }
+            if (updatedById.containsKey(id)) {
+                // Its status comes with the update, so this index must not hand it out any more
+                free.retire(id, slots[id]);
+                continue;
+            }
+            int nextId = next.compactIds.get(slots[id].getId());
+            next.free.clear(nextId, next.slots[nextId]);
+            moved[nextId] = id;
+        }
+        next.compactedFrom = this;
+        next.previousIds = moved;
+        return next;
+    }
+
+    private void expose(int id) {
+        int t = slots[id].getType()
+                .ordinal();
+        for (int g = 0; g < order.length; g++) {
+            setBit(candidates[g][t], rank[g][id]);
+        }
+    }
+
+    private void indexOrders() {
+        for (int g = 0; g < order.length; g++) {
+            for (int t = 0; t < order[g].length; t++) {
+                int[] ids = order[g][t];
+                candidates[g][t] = new AtomicLongArray(words(ids.length));
+                for (int r = 0; r < ids.length; r++) {
+                    rank[g][ids[r]] = r;
+                    if (free.isSet(ids[r])) {
+                        setBit(candidates[g][t], r);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Compact ids from {@code fromId} on with the given type, in the gate's claim order.
+     */
+    private int[] sortedByDistance(Gate gate, VehicleType type, ParkingSlot[] slotsById, int[] ownersById, int fromId) {
+        // (distance << 32 | id) sorts by distance, then id, without boxing
+        long[] keys = new long[slotsById.length - fromId];
+        int n = 0;
+        for (int id = fromId; id < slotsById.length; id++) {
+            if (slotsById[id].getType() == type) {
+                keys[n++] = key(gate, id, slotsById[id], ownersById);
+            }
+        }
+        Arrays.sort(keys, 0, n);
+        int[] sorted = new int[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = (int) keys[i];
+        }
+        return sorted;
+    }
+
+    private int[] merge(Gate gate, int[] current, boolean[] retired, int[] added, ParkingSlot[] nextSlots, int[] nextOwners) {
+        int[] merged = new int[current.length + added.length];
+        int n = 0;
+        int a = 0;
+        for (int id : current) {
+            if (retired[id]) {
+                continue;
+            }
+            long currentKey = key(gate, id, nextSlots[id], nextOwners);
+            while (a < added.length && key(gate, added[a], nextSlots[added[a]], nextOwners) < currentKey) {
+                merged[n++] = added[a++];
+            }
+            merged[n++] = id;
+        }
+        while (a < added.length) {
+            merged[n++] = added[a++];
+        }
+        return Arrays.copyOf(merged, n);
+    }
+
+    /**
+     * Sort key of a slot in a gate's ordering: (distance << 32 | id) sorts by distance, then id,
+     * without boxing; sharded, the steal rank of the slot's shard comes first.
+     */
+    private long key(Gate gate, int id, ParkingSlot slot, int[] ownersById) {
+        int d = distance.applyAsInt(gate, slot);
+        if (ownersById == null) {
+            return ((long) d << 32) | id;
+        }
+        return ((long) stealRank[gate.ordinal()][ownersById[id]] << STEAL_RANK_SHIFT)
+                | ((long) Math.min(d, MAX_SHARDED_DISTANCE) << 32) | id;
+    }
+
+    /**
+     * Groups the slots by the gate nearest to each, and orders the other shards of every
+     * gate by how close their nearest slot is to it.
+     */
+    private Shards shard(List<ParkingSlot> slotList) {
+        int gates = Gate.values().length;
+        List<List<ParkingSlot>> byOwner = new ArrayList<>(gates);
+        for (int g = 0; g < gates; g++) {
+            byOwner.add(new ArrayList<>());
+        }
+        // [gate][shard] -> distance from the gate to the nearest slot of the shard
+        long[][] reach = new long[gates][gates];
+        for (long[] row : reach) {
+            Arrays.fill(row, Long.MAX_VALUE);
+        }
+        int[] distances = new int[gates];
+        for (ParkingSlot slot : slotList) {
+            int owner = nearestGate(slot, distances);
+            byOwner.get(owner)
+                    .add(slot);
+            for (int g = 0; g < gates; g++) {
+                reach[g][owner] = Math.min(reach[g][owner], distances[g]);
+            }
+        }
+
+        // Contiguous compact ids per shard
+        ParkingSlot[] laidOut = new ParkingSlot[slotList.size()];
+        int[] ownerOf = new int[laidOut.length];
+        int id = 0;
+        for (int g = 0; g < gates; g++) {
+            for (ParkingSlot slot : byOwner.get(g)) {
+                ownerOf[id] = g;
+                laidOut[id++] = slot;
+            }
+        }
+
+        int[][] steal = new int[gates][gates];
+        for (int g = 0; g < gates; g++) {
+            int gate = g;
+            List<Integer> shardOrder = new ArrayList<>();
+            for (int shard = 0; shard < gates; shard++) {
+                shardOrder.add(shard);
+            }
+            shardOrder.sort(Comparator.<Integer>comparingInt(shard -> shard == gate ? 0 : 1)
+                    .thenComparingLong(shard -> reach[gate][shard])
+                    .thenComparingInt(shard -> shard));
+            for (int r = 0; r < gates; r++) {
+                steal[g][shardOrder.get(r)] = r;
+            }
+        }
+        return new Shards(laidOut, ownerOf, steal);
+    }
+
+    /**
+     * The gate nearest to the slot, lowest ordinal on a tie; fills {@code distances} per gate.
+     */
+    private int nearestGate(ParkingSlot slot, int[] distances) {
+        int nearest = 0;
+        for (Gate gate : Gate.values()) {
+            distances[gate.ordinal()] = distance.applyAsInt(gate, slot);
+            if (distances[gate.ordinal()] < distances[nearest]) {
+                nearest = gate.ordinal();
+            }
+        }
+        return nearest;
+    }
+
+    private static void applyStatus(FreeBits free, int id, ParkingSlot slot) {
+        if (slot.getStatus() == SlotStatus.FREE) {
+            free.set(id, slot);
+        } else {
+            free.clear(id, slot);
+        }
+    }
+
+
+    private static int words(int bits) {
+        return Math.max(1, (bits + 63) >>> 6);
+    }
+
+    /** Returns true if the bit was clear before. */
+    private static boolean setBit(AtomicLongArray bits, int i) {
+        long mask = 1L << i;
+        return (bits.getAndAccumulate(i >>> 6, mask, OR) & mask) == 0;
+    }
+
+    /** Returns true if the bit was set before. */
+    private static boolean clearBit(AtomicLongArray bits, int i) {
+        long mask = 1L << i;
+        return (bits.getAndAccumulate(i >>> 6, mask, AND_NOT) & mask) != 0;
+    }
+
+    private static int nextSetBit(AtomicLongArray bits, int from) {
+        int w = from >>> 6;
+        if (w >= bits.length()) {
+            return -1;
+        }
+        long word = bits.get(w) & (-1L << from);
+        while (word == 0) {
+            if (++w == bits.length()) {
+                return -1;
+            }
+            word = bits.get(w);
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Free bit per compact id plus free counts per floor & vehicle type. Stored in fixed-size
+     * chunks so a derived index can grow it while sharing every existing chunk with its base.
+     * The counts are striped ({@link LongAdder}), so claims on one floor and type do not
+     * contend on a single counter.
+     */
+    private static final class FreeBits {
+        private static final int CHUNK_SHIFT = 12; // 4096 slots per chunk
+        private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+        private final AtomicLongArray[] chunks;
+        // Compact ids that were removed; they can never become free again
+        private final AtomicLongArray[] retired;
+        // Floor -> free count per vehicle type ordinal
+        private final ConcurrentMap<Integer, LongAdder[]> counts;
+
+        FreeBits(int capacity) {
+            this(new AtomicLongArray[0], new AtomicLongArray[0], new ConcurrentHashMap<>(), capacity);
+        }
+
+        private FreeBits(AtomicLongArray[] shared, AtomicLongArray[] sharedRetired, ConcurrentMap<Integer, LongAdder[]> counts,
+                         int capacity) {
+            int needed = Math.max(1, (capacity + CHUNK_MASK) >>> CHUNK_SHIFT);
+            this.chunks = grow(shared, needed);
+            this.retired = grow(sharedRetired, needed);
+            this.counts = counts;
+        }
+
+        FreeBits ensureCapacity(int capacity) {
+            return capacity <= chunks.length << CHUNK_SHIFT ? this : new FreeBits(chunks, retired, counts, capacity);
+        }
+
+        boolean isSet(int id) {
+            return isSet(chunks, id);
+        }
+
+        boolean set(int id, ParkingSlot slot) {
+            if (!setBit(chunks[id >>> CHUNK_SHIFT], id & CHUNK_MASK)) {
+                return false;
+            }
+            counter(slot).increment();
+            // Undo a release that raced the removal of the slot
+            if (isSet(retired, id)) {
+                clear(id, slot);
+                return false;
+            }
+            return true;
+        }
+
+        boolean clear(int id, ParkingSlot slot) {
+            boolean changed = clearBit(chunks[id >>> CHUNK_SHIFT], id & CHUNK_MASK);
+            if (changed) {
+                counter(slot).decrement();
+            }
+            return changed;
+        }
+
+        /** Returns true if the slot was free until now. */
+        boolean retire(int id, ParkingSlot slot) {
+            setBit(retired[id >>> CHUNK_SHIFT], id & CHUNK_MASK);
+            return clear(id, slot);
+        }
+
+        int count(VehicleType type) {
+            long count = 0;
+            for (LongAdder[] byType : counts.values()) {
+                count += byType[type.ordinal()].sum();
+            }
+            return (int) count;
+        }
+
+        int count(int floor, VehicleType type) {
+            LongAdder[] byType = counts.get(floor);
+            return byType == null ? 0 : (int) byType[type.ordinal()].sum();
+        }
+
+        private LongAdder counter(ParkingSlot slot) {
+            LongAdder[] byType = counts.get(slot.getFloorNumber());
+            if (byType == null) {
+                byType = counts.computeIfAbsent(slot.getFloorNumber(), f -> newCounts());
+            }
+            return byType[slot.getType()
+                    .ordinal()];
+        }
+
+        private static boolean isSet(AtomicLongArray[] bits, int id) {
+            return (bits[id >>> CHUNK_SHIFT].get((id & CHUNK_MASK) >>> 6) & (1L << id)) != 0;
+        }
+
+        private static AtomicLongArray[] grow(AtomicLongArray[] shared, int needed) {
+            AtomicLongArray[] grown = Arrays.copyOf(shared, Math.max(needed, shared.length));
+            for (int c = shared.length; c < grown.length; c++) {
+                grown[c] = new AtomicLongArray(words(1 << CHUNK_SHIFT));
+            }
+            return grown;
+        }
+
+        private static LongAdder[] newCounts() {
+            LongAdder[] counts = new LongAdder[VehicleType.values().length];
+            for (int t = 0; t < counts.length; t++) {
+                counts[t] = new LongAdder();
+            }
+            return counts;
+        }
+    }
+
+    private record Shards(ParkingSlot[] slots, int[] owners, int[][] stealRank) {
+    }
+
+    /**
+     * Slots of one vehicle type on one floor, and how many of them are free.
+     */
+    public record FloorCount(int floor, VehicleType type, int total, int free) {
+    }
+}
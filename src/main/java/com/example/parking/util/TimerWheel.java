@@ -0,0 +1,159 @@
+package com.example.parking.util;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel: a ring of buckets, one per tick. A timeout is hashed into the bucket of
+ * its deadline tick, so scheduling, cancelling and expiring one are O(1), and a tick only
+ * visits its own bucket instead of every pending timeout. Deadlines more than one turn away
+ * sit out their remaining rounds in the bucket.
+ * <p>
+ * Any thread may schedule and cancel; {@link #expire} is driven by one thread at a time.
+ * New timeouts are queued and moved into their bucket by that thread, and a timeout ends
+ * in exactly one of cancelled or expired, so a cancel racing its expiry has one winner.
+ * Expiry is late by at most one tick plus the driver's polling delay, never early.
+ */
+public final class TimerWheel<T> {
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final int mask;
+    // [tick & mask] -> timeouts due in that bucket; only touched by the expiring thread
+    private final Timeout<T>[] buckets;
+    private final Queue<Timeout<T>> scheduled = new ConcurrentLinkedQueue<>();
+
+    // Next tick to sweep; only touched by the expiring thread
+    private long tick;
+
+    /**
+     * @param size buckets in the ring, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(Duration tickDuration, int size, long startNanos) {
+        if (tickDuration.isNegative() || tickDuration.isZero() || size < 1) {
+            throw new IllegalArgumentException("Tick and size must be positive");
+        }
+        int buckets = Integer.highestOneBit(size);
+        if (buckets < size) {
+            buckets <<= 1;
+        }
+        this.tickNanos = tickDuration.toNanos();
+        this.startNanos = startNanos;
+        this.mask = buckets - 1;
+        this.buckets = new Timeout[buckets];
+    }
+
+    /**
+     * Schedules {@code item} to expire once {@code System.nanoTime()}-style time reaches the deadline.
+     */
+    public Timeout<T> schedule(T item, long deadlineNanos) {
+        Timeout<T> timeout = new Timeout<>(item, deadlineNanos);
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Sweeps every tick up to {@code nowNanos} and hands each timeout that expired to {@code onExpiry}.
+     *
+     * @return the number of timeouts expired
+     */
+    public int expire(long nowNanos, Consumer<T> onExpiry) {
+        // 1. Hash the timeouts scheduled since the last sweep into their buckets
+        Timeout<T> timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.state.get() == Timeout.PENDING) {
+                place(timeout);
+            }
+        }
+
+        // 2. Sweep the buckets of the ticks that have fully elapsed
+        int expired = 0;
+        long lastTick = (nowNanos - startNanos) / tickNanos;
+        for (; tick <= lastTick; tick++) {
+            expired += sweep((int) (tick & mask), onExpiry);
+        }
+        return expired;
+    }
+
+    private void place(Timeout<T> timeout) {
+        long deadlineTick = ceilDiv(timeout.deadlineNanos - startNanos, tickNanos);
+        long dueTick = Math.max(deadlineTick, tick);
+        timeout.remainingRounds = (dueTick - tick) / buckets.length;
+        int bucket = (int) (dueTick & mask);
+        timeout.next = buckets[bucket];
+        buckets[bucket] = timeout;
+    }
+
+    private int sweep(int bucket, Consumer<T> onExpiry) {
+        int expired = 0;
+        Timeout<T> previous = null;
+        Timeout<T> timeout = buckets[bucket];
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            boolean due = timeout.remainingRounds <= 0;
+            if (due || timeout.state.get() == Timeout.CANCELLED) {
+                // Unlink: the timeout is done either way
+                if (previous == null) {
+                    buckets[bucket] = next;
+                } else {
+                    previous.next = next;
+                }
+                timeout.next = null;
+                if (due && timeout.state.compareAndSet(Timeout.PENDING, Timeout.EXPIRED)) {
+                    onExpiry.accept(timeout.item);
+                    expired++;
+                }
+            } else {
+                timeout.remainingRounds--;
+                previous = timeout;
+            }
+            timeout = next;
+        }
+        return expired;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    public static final class Timeout<T> {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final T item;
+        private final long deadlineNanos;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        // Wheel turns left before the timeout is due, & the next one in its bucket
+        private long remainingRounds;
+        private Timeout<T> next;
+
+        private Timeout(T item, long deadlineNanos) {
+            this.item = item;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public T item() {
+            return item;
+        }
+
+        public long deadlineNanos() {
+            return deadlineNanos;
+        }
+
+        /**
+         * Cancels the timeout unless it has expired already.
+         *
+         * @return true if this call cancelled it, false if it had expired or was cancelled before
+         */
+        public boolean cancel() {
+            return state.compareAndSet(PENDING, CANCELLED);
+        }
+    }
+}
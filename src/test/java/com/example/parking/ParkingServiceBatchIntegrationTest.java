@@ -0,0 +1,81 @@
+package com.example.parking;
+
+import com.example.parking.dto.BatchItemResponse;
+import com.example.parking.dto.EntryRequest;
+import com.example.parking.dto.ExitRequest;
+import com.example.parking.dto.ReceiptResponse;
+import com.example.parking.dto.TicketResponse;
+import com.example.parking.entity.VehicleType;
+import com.example.parking.service.ParkingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+class ParkingServiceBatchIntegrationTest {
+
+    @Autowired
+    ParkingService parkingService;
+
+    @Test
+    void batchEntryAndExitReportFailuresPerItem() {
+        List<BatchItemResponse<TicketResponse>> entries = parkingService.enterVehicles(List.of(
+                entry("BATCH-1", VehicleType.TRUCK, "GATE_1"),
+                entry("BATCH-2", VehicleType.TRUCK, "GATE_1"),
+                entry("BATCH-1", VehicleType.TRUCK, "GATE_2"),
+                entry("BATCH-3", VehicleType.TRUCK, "GATE_9")));
+
+        assertEquals(200, entries.get(0)
+                .getStatus());
+        assertEquals(200, entries.get(1)
+                .getStatus());
+        assertNotEquals(entries.get(0)
+                .getResult()
+                .getSlotNumber(), entries.get(1)
+                .getResult()
+                .getSlotNumber());
+        assertEquals(409, entries.get(2)
+                .getStatus());
+        assertEquals(400, entries.get(3)
+                .getStatus());
+
+        Long ticketId = entries.get(0)
+                .getResult()
+                .getTicketId();
+        assertNotNull(parkingService.calculateFare(ticketId));
+
+        List<BatchItemResponse<ReceiptResponse>> exits = parkingService.exitVehicles(List.of(
+                exit(ticketId), exit(ticketId), exit(-1L)));
+
+        assertEquals(200, exits.get(0)
+                .getStatus());
+        assertEquals(409, exits.get(1)
+                .getStatus());
+        assertEquals(400, exits.get(2)
+                .getStatus());
+    }
+
+    private static EntryRequest entry(String plateNo, VehicleType type, String gate) {
+        EntryRequest req = new EntryRequest();
+        req.setPlateNo(plateNo);
+        req.setVehicleType(type);
+        req.setEntryGate(gate);
+        req.setOwnerName("Batch Owner");
+        return req;
+    }
+
+    private static ExitRequest exit(Long ticketId) {
+        ExitRequest req = new ExitRequest();
+        req.setTicketId(ticketId);
+        req.setPaymentMethod("CASH");
+        req.setAmount(new BigDecimal("1000"));
+        return req;
+    }
+}
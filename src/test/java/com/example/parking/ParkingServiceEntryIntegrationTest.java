@@ -0,0 +1,240 @@
+package com.example.parking;
+
+import com.example.parking.dto.AvailabilityCount;
+import com.example.parking.dto.AvailabilityResponse;
+import com.example.parking.dto.EntryRequest;
+import com.example.parking.dto.ExitRequest;
+import com.example.parking.dto.FareResponse;
+import com.example.parking.dto.TicketResponse;
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.ParkingSlot;
+import com.example.parking.entity.PaymentStatus;
+import com.example.parking.entity.SlotStatus;
+import com.example.parking.entity.VehicleType;
+import com.example.parking.exception.ParkingException;
+import com.example.parking.repository.ParkingSlotRepository;
+import com.example.parking.repository.PaymentRepository;
+import com.example.parking.service.ActiveTicketCache;
+import com.example.parking.service.AvailabilityService;
+import com.example.parking.service.ParkingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class ParkingServiceEntryIntegrationTest {
+
+    @Autowired
+    ParkingService parkingService;
+
+    @Autowired
+    ParkingSlotRepository parkingSlotRepository;
+
+    @Autowired
+    PaymentRepository paymentRepository;
+
+    @Autowired
+    ActiveTicketCache activeTicketCache;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    AvailabilityService availabilityService;
+
+    @Test
+    void entrySkipsSlotTakenOutOfServiceBehindTheIndex() {
+        // Park & leave once to learn the nearest BIKE slot of GATE_1
+        TicketResponse first = parkingService.enterVehicle(entry("SINGLE-1"));
+        parkingService.calculateFare(first.getTicketId());
+        parkingService.exitVehicle(exit(first.getTicketId()));
+
+        // Take it out of service in the DB only; the index still lists it as free
+        ParkingSlot nearest = parkingSlotRepository.findBySlotNumber(first.getSlotNumber())
+                .orElseThrow();
+        nearest.setStatus(SlotStatus.OCCUPIED);
+        parkingSlotRepository.save(nearest);
+
+        Counter staleClaims = meterRegistry.get("parking.allocation.stale.claims")
+                .tags("gate", "GATE_1", "vehicle.type", "BIKE")
+                .counter();
+        double staleBefore = staleClaims.count();
+        TicketResponse second = parkingService.enterVehicle(entry("SINGLE-2"));
+        assertNotEquals(first.getSlotNumber(), second.getSlotNumber());
+        assertEquals(staleBefore + 1, staleClaims.count());
+
+        ParkingSlot allocated = parkingSlotRepository.findBySlotNumber(second.getSlotNumber())
+                .orElseThrow();
+        assertEquals(SlotStatus.OCCUPIED, allocated.getStatus());
+        assertEquals(1L, allocated.getVersion());
+
+        parkingService.calculateFare(second.getTicketId());
+        parkingService.exitVehicle(exit(second.getTicketId()));
+        ParkingSlot restored = parkingSlotRepository.findById(nearest.getId())
+                .orElseThrow();
+        restored.setStatus(SlotStatus.FREE);
+        parkingSlotRepository.save(restored);
+    }
+
+    @Test
+    void duplicateEntryIsRejectedUntilExitCommits() {
+        // A rolled-back entry must not leave the plate marked as inside
+        EntryRequest unknownGate = entry("SINGLE-3");
+        unknownGate.setEntryGate("GATE_9");
+        ParkingException rejected = assertThrows(ParkingException.class, () -> parkingService.enterVehicle(unknownGate));
+        assertEquals(400, rejected.getStatus());
+
+        TicketResponse ticket = parkingService.enterVehicle(entry("SINGLE-3"));
+        ParkingException duplicate = assertThrows(ParkingException.class, () -> parkingService.enterVehicle(entry("SINGLE-3")));
+        assertEquals(409, duplicate.getStatus());
+
+        parkingService.calculateFare(ticket.getTicketId());
+        parkingService.exitVehicle(exit(ticket.getTicketId()));
+        TicketResponse again = parkingService.enterVehicle(entry("SINGLE-3"));
+
+        parkingService.calculateFare(again.getTicketId());
+        parkingService.exitVehicle(exit(again.getTicketId()));
+    }
+
+    @Test
+    void fareQuotesWriteNothingAndCheckoutUpsertsOnePayment() {
+        TicketResponse ticket = parkingService.enterVehicle(entry("SINGLE-4"));
+        long payments = paymentRepository.count();
+        long hits = activeTicketCache.stats()
+                .hits();
+
+        // Polling returns the same quote and leaves the payment table alone
+        FareResponse quote = parkingService.calculateFare(ticket.getTicketId());
+        assertEquals(hits + 1, activeTicketCache.stats()
+                .hits());
+        FareResponse polled = parkingService.calculateFare(ticket.getTicketId());
+        assertEquals(quote.getQuoteToken(), polled.getQuoteToken());
+        assertEquals(quote.getAmount(), polled.getAmount());
+        assertEquals(payments, paymentRepository.count());
+
+        // Paying exactly the quoted amount with its token settles the ticket
+        ExitRequest exit = exit(ticket.getTicketId());
+        exit.setAmount(quote.getAmount());
+        exit.setQuoteToken(quote.getQuoteToken());
+        assertEquals(0, parkingService.exitVehicle(exit)
+                .getRemainingChange()
+                .signum());
+
+        assertEquals(payments + 1, paymentRepository.count());
+        assertEquals(PaymentStatus.SUCCESS, paymentRepository.findByTicketId(ticket.getTicketId())
+                .orElseThrow()
+                .getStatus());
+        assertThrows(ParkingException.class, () -> parkingService.calculateFare(ticket.getTicketId()));
+    }
+
+    @Test
+    void fareRacingExitNeverCachesTheClosedTicket() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 50; round++) {
+                TicketResponse ticket = parkingService.enterVehicle(entry("RACE-" + round));
+                // Force the fare to read through the database
+                activeTicketCache.evict(ticket.getTicketId());
+
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> fare = pool.submit(() -> {
+                    start.await();
+                    try {
+                        parkingService.calculateFare(ticket.getTicketId());
+                    } catch (ParkingException e) {
+                        // Read after the exit committed
+                    }
+                    return null;
+                });
+                Future<?> exit = pool.submit(() -> {
+                    start.await();
+                    return parkingService.exitVehicle(exit(ticket.getTicketId()));
+                });
+                start.countDown();
+                fare.get();
+                exit.get();
+
+                assertNull(activeTicketCache.get(ticket.getTicketId()));
+                ParkingException closed = assertThrows(ParkingException.class, () -> parkingService.calculateFare(ticket.getTicketId()));
+                assertEquals(400, closed.getStatus());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void availabilityFollowsEntryAndExit() {
+        AvailabilityResponse before = availabilityService.current();
+        TicketResponse ticket = parkingService.enterVehicle(entry("SINGLE-5"));
+        AvailabilityResponse inside = availabilityService.current();
+
+        assertEquals(bikes(before).free() - 1, bikes(inside).free());
+        assertEquals(bikes(before).occupied() + 1, bikes(inside).occupied());
+        assertEquals(gate1(before).occupied() + 1, gate1(inside).occupied());
+        int floor = parkingSlotRepository.findBySlotNumber(ticket.getSlotNumber())
+                .orElseThrow()
+                .getFloorNumber();
+        assertEquals(bikesOn(before, floor).free() - 1, bikesOn(inside, floor).free());
+
+        parkingService.calculateFare(ticket.getTicketId());
+        parkingService.exitVehicle(exit(ticket.getTicketId()));
+        AvailabilityResponse after = availabilityService.current();
+        assertEquals(bikes(before), bikes(after));
+        assertEquals(gate1(before), gate1(after));
+    }
+
+    private static AvailabilityCount bikes(AvailabilityResponse response) {
+        return response.getVehicleTypes()
+                .stream()
+                .filter(row -> row.vehicleType() == VehicleType.BIKE)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static AvailabilityCount bikesOn(AvailabilityResponse response, int floor) {
+        return response.getFloors()
+                .stream()
+                .filter(row -> row.vehicleType() == VehicleType.BIKE && row.floor() == floor)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static AvailabilityCount gate1(AvailabilityResponse response) {
+        return response.getGates()
+                .stream()
+                .filter(row -> row.gate() == Gate.GATE_1)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static EntryRequest entry(String plateNo) {
+        EntryRequest req = new EntryRequest();
+        req.setPlateNo(plateNo);
+        req.setVehicleType(VehicleType.BIKE);
+        req.setEntryGate("GATE_1");
+        req.setOwnerName("Single Owner");
+        return req;
+    }
+
+    private static ExitRequest exit(Long ticketId) {
+        ExitRequest req = new ExitRequest();
+        req.setTicketId(ticketId);
+        req.setPaymentMethod("CASH");
+        req.setAmount(new BigDecimal("1000"));
+        return req;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.parking;
+
+import com.example.parking.dto.EntryRequest;
+import com.example.parking.dto.ExitRequest;
+import com.example.parking.dto.ReservationRequest;
+import com.example.parking.dto.ReservationResponse;
+import com.example.parking.dto.TicketResponse;
+import com.example.parking.entity.ReservationStatus;
+import com.example.parking.entity.SlotStatus;
+import com.example.parking.entity.VehicleType;
+import com.example.parking.exception.ParkingException;
+import com.example.parking.repository.ParkingSlotRepository;
+import com.example.parking.repository.ReservationRepository;
+import com.example.parking.service.ParkingService;
+import com.example.parking.service.SlotAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Own database & a short hold, so holds lapse within the test
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reservationdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.reservation.hold-time=3s",
+        "app.reservation.tick=20ms",
+        "app.reservation.wheel-size=16"
+})
+class ParkingServiceReservationIntegrationTest {
+
+    @Autowired
+    ParkingService parkingService;
+
+    @Autowired
+    ParkingSlotRepository parkingSlotRepository;
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    SlotAllocator slotAllocator;
+
+    @Test
+    void redeemedReservationEntersIntoTheHeldSlot() {
+        int freeBefore = slotAllocator.freeCount(VehicleType.CAR);
+        ReservationResponse reservation = parkingService.reserve(reservation("RES-1"));
+        assertEquals(SlotStatus.RESERVED, slotStatus(reservation.getSlotNumber()));
+        assertEquals(freeBefore - 1, slotAllocator.freeCount(VehicleType.CAR));
+        assertEquals(409, assertThrows(ParkingException.class, () -> parkingService.reserve(reservation("RES-1")))
+                .getStatus());
+
+        // Another vehicle can neither take the held slot nor redeem the reservation
+        TicketResponse other = parkingService.enterVehicle(entry("RES-2", null));
+        assertNotEquals(reservation.getSlotNumber(), other.getSlotNumber());
+        assertEquals(400, assertThrows(ParkingException.class,
+                () -> parkingService.enterVehicle(entry("RES-3", reservation.getReservationId())))
+                .getStatus());
+
+        TicketResponse ticket = parkingService.enterVehicle(entry("RES-1", reservation.getReservationId()));
+        assertEquals(reservation.getSlotNumber(), ticket.getSlotNumber());
+        assertEquals(SlotStatus.OCCUPIED, slotStatus(ticket.getSlotNumber()));
+        assertEquals(ReservationStatus.REDEEMED, reservationStatus(reservation.getReservationId()));
+
+        parkingService.exitVehicle(exit(ticket.getTicketId()));
+        parkingService.exitVehicle(exit(other.getTicketId()));
+        assertEquals(freeBefore, slotAllocator.freeCount(VehicleType.CAR));
+    }
+
+    @Test
+    void unclaimedHoldLapsesAndItsSlotReturnsToTheLot() throws InterruptedException {
+        int freeBefore = slotAllocator.freeCount(VehicleType.CAR);
+        ReservationResponse reservation = parkingService.reserve(reservation("RES-4"));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (slotStatus(reservation.getSlotNumber()) != SlotStatus.FREE && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(SlotStatus.FREE, slotStatus(reservation.getSlotNumber()));
+        assertEquals(ReservationStatus.EXPIRED, reservationStatus(reservation.getReservationId()));
+        assertEquals(freeBefore, slotAllocator.freeCount(VehicleType.CAR));
+        assertEquals(404, assertThrows(ParkingException.class,
+                () -> parkingService.enterVehicle(entry("RES-4", reservation.getReservationId())))
+                .getStatus());
+
+        // The plate may reserve again, and a cancelled hold frees its slot at once
+        ReservationResponse again = parkingService.reserve(reservation("RES-4"));
+        parkingService.cancelReservation(again.getReservationId());
+        assertEquals(SlotStatus.FREE, slotStatus(again.getSlotNumber()));
+        assertEquals(ReservationStatus.CANCELLED, reservationStatus(again.getReservationId()));
+        assertEquals(freeBefore, slotAllocator.freeCount(VehicleType.CAR));
+    }
+
+    private SlotStatus slotStatus(String slotNumber) {
+        return parkingSlotRepository.findBySlotNumber(slotNumber)
+                .orElseThrow()
+                .getStatus();
+    }
+
+    private ReservationStatus reservationStatus(Long reservationId) {
+        return reservationRepository.findById(reservationId)
+                .orElseThrow()
+                .getStatus();
+    }
+
+    private static ReservationRequest reservation(String plateNo) {
+        ReservationRequest req = new ReservationRequest();
+        req.setPlateNo(plateNo);
+        req.setVehicleType(VehicleType.CAR);
+        req.setGate("GATE_1");
+        return req;
+    }
+
+    private static EntryRequest entry(String plateNo, Long reservationId) {
+        EntryRequest req = new EntryRequest();
+        req.setPlateNo(plateNo);
+        req.setVehicleType(VehicleType.CAR);
+        req.setEntryGate("GATE_1");
+        req.setOwnerName("Reservation Owner");
+        req.setReservationId(reservationId);
+        return req;
+    }
+
+    private static ExitRequest exit(Long ticketId) {
+        ExitRequest req = new ExitRequest();
+        req.setTicketId(ticketId);
+        req.setPaymentMethod("CASH");
+        req.setAmount(new BigDecimal("1000"));
+        return req;
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.parking;
+
+import com.example.parking.dto.EntryRequest;
+import com.example.parking.dto.ExitRequest;
+import com.example.parking.dto.SlotBulkRequest;
+import com.example.parking.dto.TicketResponse;
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.ParkingSlot;
+import com.example.parking.entity.SlotStatus;
+import com.example.parking.entity.Ticket;
+import com.example.parking.entity.TicketStatus;
+import com.example.parking.entity.VehicleType;
+import com.example.parking.exception.ParkingException;
+import com.example.parking.repository.ParkingSlotRepository;
+import com.example.parking.repository.TicketRepository;
+import com.example.parking.service.LotJournal;
+import com.example.parking.service.ParkingService;
+import com.example.parking.service.SlotAllocator;
+import com.example.parking.service.SlotProvisioningService;
+import com.example.parking.service.WriteBehindPipeline;
+import com.example.parking.util.GroupCommitLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class WriteBehindIntegrationTest {
+
+    @Autowired
+    ParkingService parkingService;
+
+    @Autowired
+    TicketRepository ticketRepository;
+
+    @Autowired
+    ParkingSlotRepository parkingSlotRepository;
+
+    @Autowired
+    SlotAllocator slotAllocator;
+
+    @Autowired
+    WriteBehindPipeline writeBehind;
+
+    @Autowired
+    SlotProvisioningService slotProvisioningService;
+
+    @Autowired
+    LotJournal lotJournal;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private static final Path DEAD_LETTERS = tempDirectory().resolve("entries.dead-letter");
+
+    @DynamicPropertySource
+    static void writeBehind(DynamicPropertyRegistry registry) {
+        registry.add("app.write-behind.enabled", () -> true);
+        registry.add("app.write-behind.journal-file", () -> DEAD_LETTERS.resolveSibling("entries.journal")
+                .toString());
+        registry.add("app.write-behind.dead-letter-file", DEAD_LETTERS::toString);
+        registry.add("app.write-behind.max-attempts", () -> 2);
+        registry.add("app.lot-journal.enabled", () -> true);
+        registry.add("app.lot-journal.directory", () -> DEAD_LETTERS.resolveSibling("lot-journal")
+                .toString());
+        // Own database, so the seeded slots do not collide with the other test contexts
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:writebehind;DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+    }
+
+    @Test
+    void entryIsAnsweredFromTheJournalAndWrittenBehind() {
+        EntryRequest entry = new EntryRequest();
+        entry.setPlateNo("WB-1");
+        entry.setVehicleType(VehicleType.CAR);
+        entry.setEntryGate("GATE_3");
+        entry.setOwnerName("Write Behind");
+        TicketResponse ticket = parkingService.enterVehicle(entry);
+
+        // Fare & exit wait for the background writer when they need the row
+        parkingService.calculateFare(ticket.getTicketId());
+        ExitRequest exit = new ExitRequest();
+        exit.setTicketId(ticket.getTicketId());
+        exit.setPaymentMethod("CASH");
+        exit.setAmount(new BigDecimal("1000"));
+        parkingService.exitVehicle(exit);
+
+        Ticket stored = ticketRepository.findById(ticket.getTicketId())
+                .orElseThrow();
+        assertEquals(TicketStatus.CLOSED, stored.getStatus());
+        assertEquals(ticket.getSlotNumber(), stored.getSlot()
+                .getSlotNumber());
+        assertNull(stored.getActivePlate());
+    }
+
+    @Test
+    void slotOfAnUnwrittenEntryIsNotHandedOutTwiceNorChanged() throws Exception {
+        // Learn the slot the next CAR entry at GATE_4 gets
+        ParkingSlot next = slotAllocator.claim(Gate.GATE_4, VehicleType.CAR);
+        slotAllocator.release(next);
+
+        TicketResponse ticket;
+        try (Connection lock = dataSource.getConnection(); Statement statement = lock.createStatement()) {
+            // Hold the slot row so the entry cannot flush meanwhile
+            lock.setAutoCommit(false);
+            statement.executeQuery("select * from parking_slot where id = " + next.getId() + " for update");
+            ticket = parkingService.enterVehicle(entry("WB-2"));
+            assertEquals(next.getSlotNumber(), ticket.getSlotNumber());
+
+            // A rebuild from the database sees the slot FREE, but must not hand it out again
+            slotAllocator.rebuild(() -> writeBehind.withUnflushedClaims(parkingSlotRepository.findAll()));
+            ParkingSlot other = slotAllocator.claim(Gate.GATE_4, VehicleType.CAR);
+            assertNotEquals(next.getId(), other.getId());
+            slotAllocator.release(other);
+
+            // Nor may an admin change it before it is written
+            SlotBulkRequest delete = new SlotBulkRequest();
+            delete.getDeletes()
+                    .add(next.getId());
+            assertEquals(409, assertThrows(ParkingException.class, () -> slotProvisioningService.provision(delete))
+                    .getStatus());
+            lock.commit();
+        }
+
+        // The flush writes the ticket on the slot the gate answered
+        parkingService.calculateFare(ticket.getTicketId());
+        Ticket stored = ticketRepository.findById(ticket.getTicketId())
+                .orElseThrow();
+        assertEquals(next.getId(), stored.getSlot()
+                .getId());
+    }
+
+    @Test
+    void entryLeavesASlotUnderChangeToThatChange() {
+        ParkingSlot next = slotAllocator.claim(Gate.GATE_4, VehicleType.CAR);
+        slotAllocator.release(next);
+
+        writeBehind.beginSlotChange(List.of(next.getId()));
+        TicketResponse ticket = parkingService.enterVehicle(entry("WB-5"));
+        assertNotEquals(next.getSlotNumber(), ticket.getSlotNumber());
+
+        // The change did not go through, so the skipped slot is free again
+        writeBehind.endSlotChange(List.of(next.getId()), false);
+        ParkingSlot again = slotAllocator.claim(Gate.GATE_4, VehicleType.CAR);
+        assertEquals(next.getId(), again.getId());
+        slotAllocator.release(again);
+    }
+
+    @Test
+    void entryThatCanNeverBeWrittenIsDeadLetteredAndTheRestMoveOn() throws Exception {
+        // A ticket the plate registry does not know about makes the insert violate the unique active plate
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("insert into ticket (id, entry_time, status, active_plate) values (900000, current_timestamp, 'ACTIVE', 'WB-3')");
+        }
+        TicketResponse doomed = parkingService.enterVehicle(entry("WB-3"));
+        TicketResponse next = parkingService.enterVehicle(entry("WB-4"));
+
+        assertEquals(409, assertThrows(ParkingException.class, () -> parkingService.calculateFare(doomed.getTicketId()))
+                .getStatus());
+        parkingService.calculateFare(next.getTicketId());
+        assertTrue(ticketRepository.existsById(next.getTicketId()));
+        assertTrue(Files.readString(DEAD_LETTERS)
+                .contains("\"ticketId\":" + doomed.getTicketId()));
+
+        // The entry was journaled as taking its slot; the voided entry gives it back
+        assertEquals(SlotStatus.FREE, lotJournal.currentSlots()
+                .stream()
+                .filter(slot -> slot.getSlotNumber()
+                        .equals(doomed.getSlotNumber()))
+                .findFirst()
+                .orElseThrow()
+                .getStatus());
+    }
+
+    @Test
+    void interruptedEntriesAreStillAdmittedAndWritten() throws Exception {
+        // Reserve the ticket id block first, so the interrupted entries only wait on the journal
+        List<TicketResponse> tickets = new ArrayList<>();
+        tickets.add(parkingService.enterVehicle(entry("WB-6")));
+
+        // Gates admitting at once share group commits, so some are interrupted while it is pending
+        int gates = 4;
+        CountDownLatch ready = new CountDownLatch(gates);
+        CountDownLatch go = new CountDownLatch(1);
+        List<CompletableFuture<TicketResponse>> admitted = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < gates; i++) {
+            CompletableFuture<TicketResponse> ticket = new CompletableFuture<>();
+            String plateNo = "WB-INT-" + i;
+            Thread gate = new Thread(() -> {
+                try {
+                    ready.countDown();
+                    go.await();
+                    Thread.currentThread()
+                            .interrupt();
+                    ticket.complete(parkingService.enterVehicle(entry(plateNo)));
+                    assertTrue(Thread.currentThread()
+                            .isInterrupted(), "interrupt was swallowed");
+                } catch (Throwable e) {
+                    ticket.completeExceptionally(e);
+                }
+            });
+            admitted.add(ticket);
+            threads.add(gate);
+            gate.start();
+        }
+        ready.await();
+        go.countDown();
+        for (Thread gate : threads) {
+            gate.join(10_000);
+        }
+
+        // Every entry keeps its plate and is written behind like any other
+        for (int i = 0; i < gates; i++) {
+            TicketResponse ticket = admitted.get(i)
+                    .get(10, TimeUnit.SECONDS);
+            tickets.add(ticket);
+            assertEquals(409, assertThrows(ParkingException.class, () -> parkingService.enterVehicle(entry(ticket.getPlateNo())))
+                    .getStatus());
+            parkingService.calculateFare(ticket.getTicketId());
+            assertTrue(ticketRepository.existsById(ticket.getTicketId()));
+        }
+
+        // Read the journal as a restart would: everything in it is in the database or dead-lettered
+        Path copy = Files.createTempDirectory("write-behind-restart")
+                .resolve("entries.journal");
+        Files.copy(DEAD_LETTERS.resolveSibling("entries.journal"), copy);
+        String deadLetters = Files.exists(DEAD_LETTERS) ? Files.readString(DEAD_LETTERS) : "";
+        GroupCommitLog restarted = new GroupCommitLog(copy, 16);
+        try {
+            assertFalse(restarted.recovered()
+                    .isEmpty());
+            for (byte[] bytes : restarted.recovered()) {
+                long ticketId = objectMapper.readTree(bytes)
+                        .get("ticketId")
+                        .asLong();
+                assertTrue(ticketRepository.existsById(ticketId) || deadLetters.contains("\"ticketId\":" + ticketId),
+                        "journaled ticket " + ticketId + " is not in the database");
+            }
+        } finally {
+            restarted.close();
+        }
+
+        // Give the seeded slots back to the other tests
+        for (TicketResponse ticket : tickets) {
+            ExitRequest exit = new ExitRequest();
+            exit.setTicketId(ticket.getTicketId());
+            exit.setPaymentMethod("CASH");
+            exit.setAmount(new BigDecimal("1000"));
+            parkingService.exitVehicle(exit);
+        }
+    }
+
+    private static Path tempDirectory() {
+        try {
+            return Files.createTempDirectory("write-behind");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static EntryRequest entry(String plateNo) {
+        EntryRequest entry = new EntryRequest();
+        entry.setPlateNo(plateNo);
+        entry.setVehicleType(VehicleType.CAR);
+        entry.setEntryGate("GATE_4");
+        entry.setOwnerName("Write Behind");
+        return entry;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.parking.benchmark;
+
+import com.example.parking.dto.EntryRequest;
+import com.example.parking.dto.ExitRequest;
+import com.example.parking.dto.FareResponse;
+import com.example.parking.dto.SlotBulkRequest;
+import com.example.parking.dto.TicketResponse;
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.ParkingSlot;
+import com.example.parking.entity.SlotStatus;
+import com.example.parking.entity.VehicleType;
+import com.example.parking.service.ParkingService;
+import com.example.parking.service.SlotProvisioningService;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares gate throughput of the blocking entry → fare → exit path when every request runs on
+ * <ul>
+ *     <li>platform threads: a fixed pool the size of Tomcat's default {@code server.tomcat.threads.max}</li>
+ *     <li>virtual threads: one per request, as with {@code spring.threads.virtual.enabled} (Java 21, else skipped)</li>
+ * </ul>
+ * All visits are submitted at once, like a rush at every gate. The database is reached over
+ * H2's TCP server so every repository call blocks on a real round-trip.
+ * Run with {@code mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=GateThroughputBenchmarkTest},
+ * on Java 21 for the virtual-thread figures; {@code -Dbench.visits} sets the visits per round.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.hikari.maximum-pool-size=100"
+})
+class GateThroughputBenchmarkTest {
+
+    private static final int PLATFORM_THREADS = 200;
+    private static final int VISITS = Integer.getInteger("bench.visits", 4_000);
+    private static final int ROUNDS = 3;
+
+    private static final Server SERVER = startServer();
+
+    @Autowired
+    ParkingService parkingService;
+
+    @Autowired
+    SlotProvisioningService slotProvisioningService;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url",
+                () -> "jdbc:h2:tcp://localhost:" + SERVER.getPort() + "/mem:gatebench;DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.stop();
+    }
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        provisionSlots(VISITS);
+
+        // Warm up both paths before measuring
+        run("warm-up", Executors.newFixedThreadPool(PLATFORM_THREADS), VISITS / 4);
+        ExecutorService warmVirtual = virtualThreadPerTask();
+        if (warmVirtual != null) {
+            run("warm-up", warmVirtual, VISITS / 4);
+        }
+
+        double platform = 0;
+        double virtual = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            platform += run("platform", Executors.newFixedThreadPool(PLATFORM_THREADS), VISITS);
+            ExecutorService executor = virtualThreadPerTask();
+            if (executor != null) {
+                virtual += run("virtual", executor, VISITS);
+            }
+        }
+
+        System.out.printf("platform (%d threads) : %,10.0f visits/s%n", PLATFORM_THREADS, platform / ROUNDS);
+        if (virtual > 0) {
+            System.out.printf("virtual               : %,10.0f visits/s%n", virtual / ROUNDS);
+            System.out.printf("speed-up              : %.2fx%n", virtual / platform);
+        } else {
+            System.out.println("virtual               : needs Java 21, skipped");
+        }
+    }
+
+    /**
+     * Runs {@code visits} concurrent entry → fare → exit visits and returns visits per second.
+     */
+    private double run(String mode, ExecutorService executor, int visits) throws Exception {
+        LongAdder failed = new LongAdder();
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(visits);
+            for (int i = 0; i < visits; i++) {
+                String plateNo = "GT-" + mode + "-" + start + "-" + i;
+                Gate gate = Gate.values()[i % Gate.values().length];
+                futures.add(executor.submit(() -> {
+                    try {
+                        visit(plateNo, gate);
+                    } catch (RuntimeException e) {
+                        failed.increment();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        assertEquals(0, failed.sum(), mode + " visits failed");
+        return visits / seconds;
+    }
+
+    private void visit(String plateNo, Gate gate) {
+        EntryRequest entry = new EntryRequest();
+        entry.setPlateNo(plateNo);
+        entry.setVehicleType(VehicleType.CAR);
+        entry.setEntryGate(gate.name());
+        entry.setOwnerName("Benchmark");
+        TicketResponse ticket = parkingService.enterVehicle(entry);
+
+        FareResponse fare = parkingService.calculateFare(ticket.getTicketId());
+        ExitRequest exit = new ExitRequest();
+        exit.setTicketId(ticket.getTicketId());
+        exit.setPaymentMethod("CARD");
+        exit.setAmount(fare.getAmount());
+        exit.setQuoteToken(fare.getQuoteToken());
+        parkingService.exitVehicle(exit);
+    }
+
+    private void provisionSlots(int count) {
+        SlotBulkRequest request = new SlotBulkRequest();
+        for (int i = 0; i < count; i++) {
+            request.getUpserts()
+                    .add(new ParkingSlot("GT-" + i, i / 500 + 1, VehicleType.CAR, SlotStatus.FREE));
+        }
+        slotProvisioningService.provision(request);
+    }
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()}, looked up reflectively so this compiles
+     * for Java 17; null on an older runtime.
+     */
+    private static ExecutorService virtualThreadPerTask() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static Server startServer() {
+        try {
+            return Server.createTcpServer("-tcpPort", "0", "-ifNotExists")
+                    .start();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
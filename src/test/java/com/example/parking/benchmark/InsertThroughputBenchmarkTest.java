@@ -0,0 +1,133 @@
+package com.example.parking.benchmark;
+
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.Ticket;
+import com.example.parking.entity.TicketStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.h2.tools.Server;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures ticket insert throughput through Hibernate with the real {@link Ticket} mapping
+ * (pooled sequence, allocationSize 50):
+ * <ul>
+ *     <li>batched: the configured {@code hibernate.jdbc.batch_size} of 50</li>
+ *     <li>unbatched: the same session with a JDBC batch size of 1, one statement per row</li>
+ * </ul>
+ * Hibernate statistics check what reached the driver: one sequence call and one insert
+ * statement per 50 tickets when batched. The database is reached over H2's TCP server so
+ * every statement pays a real round-trip.
+ * Run with {@code mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=InsertThroughputBenchmarkTest}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class InsertThroughputBenchmarkTest {
+
+    private static final int ROWS = 20_000;
+    private static final int BATCH = 50;
+
+    private static final Server SERVER = startServer();
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url",
+                () -> "jdbc:h2:tcp://localhost:" + SERVER.getPort() + "/mem:insertbench;DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.stop();
+    }
+
+    @Test
+    void batchedVersusUnbatchedInserts() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class)
+                .getStatistics();
+
+        // Warm up both paths before measuring
+        persistTickets(ROWS / 10, BATCH);
+        persistTickets(ROWS / 10, 1);
+
+        statistics.clear();
+        long batchedNanos = persistTickets(ROWS, BATCH);
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        // One sequence call and one batch per 50 tickets; a few ids may be left over from the warm-up block
+        long batchedStatements = statistics.getPrepareStatementCount();
+        assertTrue(batchedStatements <= 2L * ROWS / BATCH + 2,
+                "expected inserts in batches of " + BATCH + ", but prepared " + batchedStatements + " statements");
+
+        statistics.clear();
+        long unbatchedNanos = persistTickets(ROWS, 1);
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        long unbatchedStatements = statistics.getPrepareStatementCount();
+        assertTrue(unbatchedStatements >= ROWS, "expected one insert statement per ticket, but prepared " + unbatchedStatements);
+
+        System.out.printf("batched   (%5d statements) : %,10.0f rows/s%n", batchedStatements, ROWS / (batchedNanos / 1e9));
+        System.out.printf("unbatched (%5d statements) : %,10.0f rows/s%n", unbatchedStatements, ROWS / (unbatchedNanos / 1e9));
+        System.out.printf("speed-up                     : %.1fx%n", (double) unbatchedNanos / batchedNanos);
+    }
+
+    /**
+     * Persists {@code rows} closed tickets in one transaction, flushing every 50, and returns the elapsed nanos.
+     */
+    private long persistTickets(int rows, int jdbcBatchSize) {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class)
+                    .setJdbcBatchSize(jdbcBatchSize);
+            for (int i = 0; i < rows; i++) {
+                Ticket ticket = new Ticket();
+                ticket.setEntryGate(Gate.GATE_1);
+                ticket.setEntryTime(LocalDateTime.now());
+                ticket.setStatus(TicketStatus.CLOSED);
+                entityManager.persist(ticket);
+                if ((i + 1) % BATCH == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+        return System.nanoTime() - start;
+    }
+
+    private static Server startServer() {
+        try {
+            return Server.createTcpServer("-tcpPort", "0", "-ifNotExists")
+                    .start();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
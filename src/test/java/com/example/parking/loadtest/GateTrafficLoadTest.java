@@ -0,0 +1,315 @@
+package com.example.parking.loadtest;
+
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.VehicleType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Open-loop load generator: replays gate traffic against the REST API of a local instance
+ * with a stub JWT decoder and reports latency percentiles, throughput and allocation failures.
+ * <p>
+ * Vehicles arrive per {@link TrafficProfile} whether or not earlier requests have returned,
+ * and each latency is measured from the moment the request was due, so a stalled server
+ * shows up in the percentiles instead of silently slowing the generator down. Each vehicle
+ * enters, stays, polls the fare and exits with the quote token.
+ * <p>
+ * Requests beyond {@code load.maxInFlight} wait in the generator for a free connection rather
+ * than opening more, so an overloaded server shows up as queueing latency and not as the
+ * generator's own connect failures. Those are reported apart from error statuses.
+ * <p>
+ * Run with {@code mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=GateTrafficLoadTest -Dload.rate=40};
+ * see {@link TrafficProfile} for the other knobs.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework.boot.context.properties=INFO"
+})
+@Import(StubJwtDecoderConfig.class)
+class GateTrafficLoadTest {
+
+    // Emails the stub decoder turns into tokens; roles come from app.security
+    private static final String ADMIN = "shubhammotghare78@gmail.com";
+    private static final String USER = "user@example.com";
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    // HTTP/1.1: one connection per in-flight request, so the in-flight cap bounds the connections too
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    // Requests waiting for one of the in-flight permits
+    private final Queue<CompletableFuture<Void>> waiting = new ConcurrentLinkedQueue<>();
+    private Semaphore inFlight;
+
+    private final Map<Endpoint, LatencyHistogram> latencies = new EnumMap<>(Endpoint.class);
+    private final LongAdder entries = new LongAdder();
+    private final LongAdder parkingFull = new LongAdder();
+    private final LongAdder exits = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    // Responses with an unexpected status: "ENTRY 500", "EXIT 409", ... -> count
+    private final Map<String, LongAdder> serverErrors = new ConcurrentHashMap<>();
+    // Requests that got no response: "ENTRY HttpTimeoutException", ... -> count
+    private final Map<String, LongAdder> clientFailures = new ConcurrentHashMap<>();
+
+    @Test
+    void replayGateTraffic() throws Exception {
+        TrafficProfile profile = TrafficProfile.fromSystemProperties();
+        inFlight = new Semaphore(profile.maxInFlight());
+        for (Endpoint endpoint : Endpoint.values()) {
+            latencies.put(endpoint, new LatencyHistogram());
+        }
+        provisionSlots(profile);
+
+        // 1. Arrivals: open loop, paced by the dispatcher thread
+        SplittableRandom random = new SplittableRandom(42);
+        List<CompletableFuture<Void>> visits = new ArrayList<>();
+        long start = System.nanoTime();
+        long end = start + profile.duration()
+                .toNanos();
+        long due = start;
+        long plate = 0;
+        while (due < end) {
+            LockSupport.parkNanos(due - System.nanoTime());
+            visits.add(visit(profile, "LT-" + plate++, profile.vehicleType(random),
+                    Gate.values()[random.nextInt(Gate.values().length)], profile.dwell(random), due));
+            due += profile.nextArrivalGapNanos(random, Duration.ofNanos(due - start));
+        }
+
+        // 2. Let the vehicles inside finish their visits
+        CompletableFuture.allOf(visits.toArray(new CompletableFuture[0]))
+                .get(profile.duration()
+                        .toSeconds() + (long) profile.dwellMaxSeconds() + 60, TimeUnit.SECONDS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        report(profile, plate, seconds);
+
+        assertTrue(entries.sum() > 0, "no entry succeeded");
+        double errorRate = (double) (total(serverErrors) + total(clientFailures)) / Math.max(1, requests.sum());
+        assertTrue(errorRate <= profile.maxErrorRate(), String.format("%.2f%% of %d requests failed: server %s, client %s",
+                100 * errorRate, requests.sum(), serverErrors, clientFailures));
+    }
+
+    private CompletableFuture<Void> visit(TrafficProfile profile, String plateNo, VehicleType type, Gate gate,
+                                          Duration dwell, long due) {
+        ObjectNode entry = objectMapper.createObjectNode()
+                .put("plateNo", plateNo)
+                .put("vehicleType", type.name())
+                .put("entryGate", gate.name())
+                .put("ownerName", "Load Test");
+        return call(Endpoint.ENTRY, post("/api/user/parking/entry", entry), due)
+                .thenCompose(ticket -> {
+                    if (ticket == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    entries.increment();
+                    long ticketId = ticket.get("ticketId")
+                            .asLong();
+                    return CompletableFuture.supplyAsync(() -> ticketId,
+                                    CompletableFuture.delayedExecutor(dwell.toMillis(), TimeUnit.MILLISECONDS))
+                            .thenCompose(id -> pollFare(id, profile.farePolls()))
+                            .thenCompose(fare -> fare == null ? CompletableFuture.completedFuture(null) : exit(ticketId, fare));
+                })
+                .handle((ignored, failure) -> {
+                    if (failure != null) {
+                        Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+                        count(clientFailures, "VISIT " + cause.getClass()
+                                .getSimpleName());
+                    }
+                    return null;
+                });
+    }
+
+    private CompletionStage<JsonNode> pollFare(long ticketId, int polls) {
+        CompletableFuture<JsonNode> fare = call(Endpoint.FARE, get("/api/user/parking/fare/" + ticketId), System.nanoTime());
+        for (int i = 1; i < polls; i++) {
+            fare = fare.thenCompose(previous -> previous == null
+                    ? CompletableFuture.completedFuture(null)
+                    : call(Endpoint.FARE, get("/api/user/parking/fare/" + ticketId), System.nanoTime()));
+        }
+        return fare;
+    }
+
+    private CompletionStage<JsonNode> exit(long ticketId, JsonNode fare) {
+        ObjectNode exit = objectMapper.createObjectNode()
+                .put("ticketId", ticketId)
+                .put("paymentMethod", "CARD")
+                .put("quoteToken", fare.get("quoteToken")
+                        .asText());
+        exit.set("amount", fare.get("amount"));
+        return call(Endpoint.EXIT, post("/api/user/parking/exit", exit), System.nanoTime())
+                .thenApply(receipt -> {
+                    if (receipt != null) {
+                        exits.increment();
+                    }
+                    return receipt;
+                });
+    }
+
+    /**
+     * Sends a request once an in-flight permit is free and records its latency from {@code due};
+     * resolves to null on an error status or when no response came back.
+     */
+    private CompletableFuture<JsonNode> call(Endpoint endpoint, HttpRequest request, long due) {
+        return send(request)
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+                        count(clientFailures, endpoint + " " + cause.getClass()
+                                .getSimpleName());
+                        return null;
+                    }
+                    latencies.get(endpoint)
+                            .record((System.nanoTime() - due) / 1_000);
+                    if (response.statusCode() == 409 && endpoint == Endpoint.ENTRY && response.body()
+                            .contains("Parking full")) {
+                        parkingFull.increment();
+                        return null;
+                    }
+                    if (response.statusCode() != 200) {
+                        count(serverErrors, endpoint + " " + response.statusCode());
+                        return null;
+                    }
+                    try {
+                        return objectMapper.readTree(response.body());
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+    }
+
+    /**
+     * Queues the request for an in-flight permit without blocking the dispatcher, sends it once it has one,
+     * and hands the permit on when it completes.
+     */
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        waiting.add(permit);
+        grantPermits();
+        return permit.thenCompose(granted -> {
+                    requests.increment();
+                    return http.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+                })
+                .whenComplete((response, failure) -> {
+                    inFlight.release();
+                    grantPermits();
+                });
+    }
+
+    private void grantPermits() {
+        while (!waiting.isEmpty() && inFlight.tryAcquire()) {
+            CompletableFuture<Void> next = waiting.poll();
+            if (next == null) {
+                inFlight.release();
+                return;
+            }
+            next.complete(null);
+        }
+    }
+
+    private static void count(Map<String, LongAdder> counts, String kind) {
+        counts.computeIfAbsent(kind, k -> new LongAdder())
+                .increment();
+    }
+
+    private static long total(Map<String, LongAdder> counts) {
+        return counts.values()
+                .stream()
+                .mapToLong(LongAdder::sum)
+                .sum();
+    }
+
+    /**
+     * Adds {@code slots} slots in the profile's vehicle-type mix through the bulk admin API.
+     */
+    private void provisionSlots(TrafficProfile profile) throws Exception {
+        ObjectNode bulk = objectMapper.createObjectNode();
+        ArrayNode upserts = bulk.putArray("upserts");
+        bulk.putArray("deletes");
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < profile.slots(); i++) {
+            upserts.addObject()
+                    .put("slotNumber", "LT-" + (i / 100 + 1) + "-" + (i % 100 + 1))
+                    .put("floorNumber", i / 100 + 1)
+                    .put("type", profile.vehicleType(random)
+                            .name());
+        }
+        HttpResponse<String> response = http.send(request("/api/admin/slots/bulk", ADMIN)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(bulk)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Provisioning failed: " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    private void report(TrafficProfile profile, long arrivals, double seconds) {
+        System.out.printf("%nGate traffic: %d arrivals, drained after %.1fs (base %.0f/s, rush x%.1f), %d slots%n",
+                arrivals, seconds, profile.rate(), profile.rushFactor(), profile.slots());
+        System.out.printf("  entries %d (%.0f/s), exits %d, parking full %d (%.2f%%), %d requests (at most %d in flight)%n",
+                entries.sum(), entries.sum() / (profile.duration()
+                        .toMillis() / 1e3), exits.sum(), parkingFull.sum(),
+                arrivals == 0 ? 0 : 100.0 * parkingFull.sum() / arrivals, requests.sum(), profile.maxInFlight());
+        System.out.printf("  server errors %s, client failures %s%n", serverErrors, clientFailures);
+        System.out.printf("  %-6s %9s %9s %9s %9s %9s%n", "", "count", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        latencies.forEach((endpoint, histogram) -> System.out.printf("  %-6s %9d %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint, histogram.count(), histogram.percentile(50) / 1e3, histogram.percentile(99) / 1e3,
+                histogram.percentile(99.9) / 1e3, histogram.max() / 1e3));
+    }
+
+    private HttpRequest post(String path, JsonNode body) {
+        return request(path, USER).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return request(path, USER).GET()
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String email) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + StubJwtDecoderConfig.tokenFor(email));
+    }
+
+    private enum Endpoint {
+        ENTRY, FARE, EXIT
+    }
+}
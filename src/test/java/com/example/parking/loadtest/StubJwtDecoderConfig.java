@@ -0,0 +1,47 @@
+package com.example.parking.loadtest;
+
+import com.example.parking.constants.ApplicationConstants;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Accepts any bearer token and reads it as the caller's email (base64url, since a bearer
+ * token may not contain '@'), so load can be driven without Google. Role mapping still
+ * goes through the real converter.
+ */
+@TestConfiguration
+class StubJwtDecoderConfig {
+
+    @Bean
+    @Primary
+    JwtDecoder stubJwtDecoder() {
+        return token -> {
+            String email = new String(Base64.getUrlDecoder()
+                    .decode(token), StandardCharsets.UTF_8);
+            return Jwt.withTokenValue(token)
+                    .header("alg", "none")
+                    .subject(email)
+                    .claim(ApplicationConstants.EMAIL, email)
+                    .issuedAt(Instant.now())
+                    .expiresAt(Instant.now()
+                            .plusSeconds(3600))
+                    .build();
+        };
+    }
+
+    /**
+     * Bearer token the stub decoder reads back as {@code email}.
+     */
+    static String tokenFor(String email) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(email.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.parking.loadtest;
+
+import com.example.parking.entity.VehicleType;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Arrival process of the load generator, read from {@code -Dload.*} system properties.
+ * <p>
+ * Arrivals are Poisson at {@code rate} per second, multiplied by {@code rushFactor} for
+ * {@code rushSeconds} out of every {@code rushEverySeconds}. Dwell times are log-normal
+ * around {@code dwellMedianSeconds}, capped at {@code dwellMaxSeconds}; each vehicle polls
+ * the fare {@code farePolls} times before leaving.
+ * <p>
+ * At most {@code maxInFlight} requests (and so connections) are open at once; later ones
+ * queue in the generator, and that wait counts towards their latency. The run fails once
+ * more than {@code maxErrorRate} of the requests end in an error status or a client failure.
+ */
+record TrafficProfile(double rate, Duration duration, double rushFactor, int rushEverySeconds, int rushSeconds,
+                      double dwellMedianSeconds, double dwellSigma, double dwellMaxSeconds, int farePolls,
+                      Map<VehicleType, Double> mix, int slots, int maxInFlight, double maxErrorRate) {
+
+    static TrafficProfile fromSystemProperties() {
+        Map<VehicleType, Double> mix = new EnumMap<>(VehicleType.class);
+        mix.put(VehicleType.CAR, doubleProperty("load.mix.car", 0.7));
+        mix.put(VehicleType.BIKE, doubleProperty("load.mix.bike", 0.2));
+        mix.put(VehicleType.TRUCK, doubleProperty("load.mix.truck", 0.1));
+        return new TrafficProfile(
+                doubleProperty("load.rate", 10),
+                Duration.ofSeconds(Long.getLong("load.durationSeconds", 60)),
+                doubleProperty("load.rushFactor", 2),
+                Integer.getInteger("load.rushEverySeconds", 20),
+                Integer.getInteger("load.rushSeconds", 5),
+                doubleProperty("load.dwellMedianSeconds", 10),
+                doubleProperty("load.dwellSigma", 0.6),
+                doubleProperty("load.dwellMaxSeconds", 60),
+                Integer.getInteger("load.farePolls", 2),
+                mix,
+                Integer.getInteger("load.slots", 5_000),
+                Integer.getInteger("load.maxInFlight", 32),
+                doubleProperty("load.maxErrorRate", 0.01));
+    }
+
+    /**
+     * Arrival rate per second at the given offset into the run.
+     */
+    double rateAt(Duration elapsed) {
+        boolean rush = rushEverySeconds > 0 && elapsed.toSeconds() % rushEverySeconds >= rushEverySeconds - rushSeconds;
+        return rush ? rate * rushFactor : rate;
+    }
+
+    long nextArrivalGapNanos(SplittableRandom random, Duration elapsed) {
+        return (long) (-Math.log(1 - random.nextDouble()) / rateAt(elapsed) * 1e9);
+    }
+
+    Duration dwell(SplittableRandom random) {
+        double seconds = dwellMedianSeconds * Math.exp(dwellSigma * random.nextGaussian());
+        return Duration.ofMillis((long) (Math.min(seconds, dwellMaxSeconds) * 1000));
+    }
+
+    VehicleType vehicleType(SplittableRandom random) {
+        double total = mix.values()
+                .stream()
+                .mapToDouble(Double::doubleValue)
+                .sum();
+        double pick = random.nextDouble() * total;
+        for (Map.Entry<VehicleType, Double> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        return VehicleType.CAR;
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.parking.service;
+
+import com.example.parking.config.TicketCacheProperties;
+import com.example.parking.dto.ActiveTicket;
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActiveTicketCacheTest {
+
+    @Test
+    void leastRecentlyUsedTicketIsEvictedBeyondMaxSize() {
+        TicketCacheProperties properties = new TicketCacheProperties();
+        properties.setMaxSize(2);
+        ActiveTicketCache cache = new ActiveTicketCache(properties);
+
+        cache.put(ticket(1));
+        cache.put(ticket(2));
+        assertNotNull(cache.get(1L)); // 2 is now the least recently used
+        cache.put(ticket(3));
+
+        assertNull(cache.get(2L));
+        assertEquals(2, cache.getAll(List.of(1L, 3L))
+                .size());
+        cache.evict(3L);
+
+        ActiveTicketCache.CacheStats stats = cache.stats();
+        assertEquals(1, stats.size());
+        assertEquals(3, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.evictions());
+    }
+
+    @Test
+    void readThroughFillIsDroppedAfterAConcurrentEviction() {
+        ActiveTicketCache cache = new ActiveTicketCache(new TicketCacheProperties());
+
+        // Fare misses and stamps, the exit commits and evicts, then the fare's read lands
+        long stamp = cache.stamp(1L);
+        cache.evict(1L);
+        assertFalse(cache.putIfNotEvictedSince(ticket(1), stamp));
+        assertNull(cache.get(1L));
+
+        assertTrue(cache.putIfNotEvictedSince(ticket(1), cache.stamp(1L)));
+        assertNotNull(cache.get(1L));
+    }
+
+    private static ActiveTicket ticket(long id) {
+        return new ActiveTicket(id, "KA-" + id, VehicleType.CAR, id, "F1-0" + id, Gate.GATE_1, LocalDateTime.now(), null);
+    }
+}
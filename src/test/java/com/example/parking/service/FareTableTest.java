@@ -0,0 +1,80 @@
+package com.example.parking.service;
+
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.PricingRule;
+import com.example.parking.entity.PricingTier;
+import com.example.parking.entity.PricingWindow;
+import com.example.parking.entity.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FareTableTest {
+
+    // A Wednesday, so only NIGHT applies from 22:00
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 10, 14, 12, 0);
+    private static final LocalDateTime LATE = LocalDateTime.of(2026, 10, 14, 23, 0);
+
+    @Test
+    void flatRuleBillsEveryStartedHourAfterFreeMinutes() {
+        FareTable table = compile(new PricingRule(VehicleType.CAR, 30, 20), List.of());
+
+        assertEquals(0, table.quote(Gate.GATE_1, NOON, 30));
+        assertEquals(2_000, table.quote(Gate.GATE_1, NOON, 31));
+        assertEquals(4_000, table.quote(Gate.GATE_1, NOON, 91));
+        assertEquals(50 * 2_000, table.quote(Gate.GATE_1, NOON, 30 + 50 * 60));
+    }
+
+    @Test
+    void tiersAreCappedPerDay() {
+        PricingRule rule = new PricingRule(VehicleType.CAR, 0, 20);
+        rule.setDailyCap(150);
+        FareTable table = compile(rule, List.of(new PricingTier(VehicleType.CAR, PricingWindow.STANDARD, 2, 10)));
+
+        // 2h at 20, then 10/h
+        assertEquals(4_000 + 3 * 1_000, table.quote(Gate.GATE_1, NOON, 5 * 60));
+        // 24h would be 40 + 220 = 260, capped at 150; the second day starts over
+        assertEquals(15_000 + 2_000, table.quote(Gate.GATE_1, NOON, 25 * 60));
+    }
+
+    @Test
+    void everyBilledHourIsPricedInItsOwnWindow() {
+        FareTable table = compile(new PricingRule(VehicleType.CAR, 0, 20),
+                List.of(new PricingTier(VehicleType.CAR, PricingWindow.NIGHT, 0, 5)));
+
+        // 23:00 is NIGHT, midnight is STANDARD again
+        assertEquals(500 + 2_000, table.quote(Gate.GATE_1, LATE, 120));
+        // Free minutes move the billed hours: 22:30 + 30 free starts billing at 23:00
+        PricingRule graced = new PricingRule(VehicleType.CAR, 30, 20);
+        assertEquals(500, compile(graced, List.of(new PricingTier(VehicleType.CAR, PricingWindow.NIGHT, 0, 5)))
+                .quote(Gate.GATE_1, LATE.minusMinutes(30), 90));
+        // Over weeks: 15 days and an hour from Wednesday noon cross Wednesday 23:00 three times
+        assertEquals((15 * 24 + 1 - 3) * 2_000 + 3 * 500, table.quote(Gate.GATE_1, NOON, (15 * 24 + 1) * 60));
+    }
+
+    @Test
+    void gateSurchargeOnlyAppliesToBilledStays() {
+        long[] surcharges = new long[Gate.values().length];
+        surcharges[Gate.GATE_2.ordinal()] = 500;
+        FareTable table = FareTable.compile(new PricingRule(VehicleType.CAR, 30, 20), List.of(), windows(), surcharges);
+
+        assertEquals(0, table.quote(Gate.GATE_2, NOON, 30));
+        assertEquals(2 * 2_000 + 500, table.quote(Gate.GATE_2, NOON, 150));
+        assertEquals(2 * 2_000, table.quote(Gate.GATE_1, NOON, 150));
+    }
+
+    private static FareTable compile(PricingRule rule, List<PricingTier> tiers) {
+        return FareTable.compile(rule, tiers, windows(), new long[Gate.values().length]);
+    }
+
+    private static PricingWindow[] windows() {
+        PricingWindow[] windows = new PricingWindow[FareTable.HOURS_PER_WEEK];
+        Arrays.fill(windows, PricingWindow.STANDARD);
+        windows[2 * 24 + 23] = PricingWindow.NIGHT;
+        return windows;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.parking.service;
+
+import com.example.parking.config.LotJournalProperties;
+import com.example.parking.entity.ParkingSlot;
+import com.example.parking.entity.SlotStatus;
+import com.example.parking.entity.VehicleType;
+import com.example.parking.event.LotEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class LotJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restartRestoresSnapshotPlusTailWithoutTheDatabase() throws Exception {
+        LotJournalProperties properties = new LotJournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(dir.toString());
+        properties.setSegmentBytes(4096);
+        properties.setSnapshotEvery(25);
+
+        List<ParkingSlot> database = List.of(slot(1, "F1-01"), slot(2, "F1-02"), slot(3, "F1-03"));
+        LotJournal journal = new LotJournal(properties, new ObjectMapper());
+        journal.recover(() -> database, true);
+
+        // Enough traffic for a few snapshots, then a tail after the last one
+        for (long ticket = 1; ticket <= 60; ticket++) {
+            journal.onLotEvent(LotEvent.entry(ticket, "KA-" + ticket, 1L));
+            journal.onLotEvent(LotEvent.exit(ticket, "KA-" + ticket, 1L));
+        }
+        journal.onLotEvent(LotEvent.entry(61L, "KA-61", 2L));
+        ParkingSlot added = slot(4, "F1-04");
+        journal.onLotEvent(LotEvent.slotsChanged(List.of(added), List.of(3L)));
+        List<ParkingSlot> before = journal.currentSlots();
+        journal.close();
+
+        // Snapshots are rolled forward in the background; the last one covers event 100 and replaced the others
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of("snapshot-00000000000000000100.json"), files.map(file -> file.getFileName()
+                            .toString())
+                    .filter(name -> name.startsWith("snapshot-"))
+                    .toList());
+        }
+
+        LotJournal restarted = new LotJournal(properties, new ObjectMapper());
+        Map<Long, ParkingSlot> restored = restarted.recover(() -> fail("database must not be read"), false)
+                .stream()
+                .collect(Collectors.toMap(ParkingSlot::getId, Function.identity()));
+        restarted.close();
+
+        assertEquals(before.size(), restored.size());
+        assertEquals(SlotStatus.FREE, restored.get(1L)
+                .getStatus());
+        assertEquals(SlotStatus.OCCUPIED, restored.get(2L)
+                .getStatus());
+        assertEquals("F1-04", restored.get(4L)
+                .getSlotNumber());
+        assertEquals(null, restored.get(3L));
+    }
+
+    private static ParkingSlot slot(long id, String number) {
+        ParkingSlot slot = new ParkingSlot(number, 1, VehicleType.CAR, SlotStatus.FREE);
+        slot.setId(id);
+        return slot;
+    }
+}
@@ -0,0 +1,386 @@
+package com.example.parking.service;
+
+import com.example.parking.entity.Gate;
+import com.example.parking.entity.ParkingSlot;
+import com.example.parking.entity.SlotStatus;
+import com.example.parking.entity.VehicleType;
+import com.example.parking.util.DistanceMatrix;
+import com.example.parking.util.SlotIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotAllocatorConcurrencyTest {
+
+    private static final int SLOTS = 2_000;
+    private static final int THREADS = 16;
+
+    @Test
+    void entryStormNeverHandsOneSlotToTwoVehicles() throws Exception {
+        SlotAllocator allocator = newAllocator(SLOTS);
+        Set<Long> claimed = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+
+        runConcurrently(() -> {
+            Gate[] gates = Gate.values();
+            ParkingSlot slot;
+            while ((slot = allocator.claim(gates[ThreadLocalRandom.current()
+                    .nextInt(gates.length)], VehicleType.CAR)) != null) {
+                if (!claimed.add(slot.getId())) {
+                    duplicates.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(0, duplicates.get());
+        assertEquals(SLOTS, claimed.size());
+        for (Gate gate : Gate.values()) {
+            assertNull(allocator.claim(gate, VehicleType.CAR));
+        }
+    }
+
+    @Test
+    void claimReleaseChurnKeepsOwnershipExclusive() throws Exception {
+        SlotAllocator allocator = newAllocator(64);
+        Map<Long, Thread> owners = new ConcurrentHashMap<>();
+        AtomicInteger violations = new AtomicInteger();
+
+        runConcurrently(() -> {
+            Gate[] gates = Gate.values();
+            for (int i = 0; i < 20_000; i++) {
+                ParkingSlot slot = allocator.claim(gates[i % gates.length], VehicleType.CAR);
+                if (slot == null) {
+                    continue;
+                }
+                if (owners.putIfAbsent(slot.getId(), Thread.currentThread()) != null) {
+                    violations.incrementAndGet();
+                    continue;
+                }
+                owners.remove(slot.getId());
+                allocator.release(slot);
+            }
+        });
+
+        assertEquals(0, violations.get());
+
+        // Every slot must be claimable exactly once after the churn settles
+        Set<Long> claimed = new HashSet<>();
+        ParkingSlot slot;
+        while ((slot = allocator.claim(Gate.GATE_1, VehicleType.CAR)) != null) {
+            assertTrue(claimed.add(slot.getId()));
+        }
+        assertEquals(64, claimed.size());
+    }
+
+    @Test
+    void claimsNearestFreeSlotFirstPerGate() {
+        SlotAllocator allocator = newAllocator(10);
+
+        // GATE_1 distances are (i * 7) % 10, so slot 0 is nearest, then slot 3
+        assertEquals(0L, allocator.claim(Gate.GATE_1, VehicleType.CAR)
+                .getId());
+        assertEquals(3L, allocator.claim(Gate.GATE_1, VehicleType.CAR)
+                .getId());
+        assertNull(allocator.claim(Gate.GATE_1, VehicleType.BIKE));
+    }
+
+    @Test
+    void incrementalChangesKeepNearestFirstOrder() {
+        SlotAllocator allocator = newAllocator(10);
+
+        // Re-number slot 0 as id 100, take slot 3 out of service, drop slot 6
+        ParkingSlot renumbered = new ParkingSlot("S-0", 1, VehicleType.CAR, SlotStatus.FREE);
+        renumbered.setId(100L);
+        ParkingSlot outOfService = new ParkingSlot("S-3", 1, VehicleType.CAR, SlotStatus.OCCUPIED);
+        outOfService.setId(3L);
+        allocator.applyChanges(List.of(renumbered, outOfService), List.of(0L, 6L));
+
+        // GATE_1 order was 0, 3, 6, 9, 2, ...
+        assertEquals(100L, allocator.claim(Gate.GATE_1, VehicleType.CAR)
+                .getId());
+        assertEquals(9L, allocator.claim(Gate.GATE_1, VehicleType.CAR)
+                .getId());
+        assertEquals(6, allocator.claim(Gate.GATE_2, VehicleType.CAR, 10)
+                .size());
+    }
+
+    @Test
+    void floorCountsFollowIncrementalChanges() {
+        SlotAllocator allocator = newAllocator(10);
+        allocator.claim(Gate.GATE_1, VehicleType.CAR);
+
+        // Move slot 1 to floor 2, re-type slot 2 as a bike, drop slot 3
+        ParkingSlot moved = new ParkingSlot("S-1", 2, VehicleType.CAR, SlotStatus.FREE);
+        moved.setId(1L);
+        ParkingSlot retyped = new ParkingSlot("S-2", 1, VehicleType.BIKE, SlotStatus.FREE);
+        retyped.setId(2L);
+        allocator.applyChanges(List.of(moved, retyped), List.of(3L));
+
+        assertEquals(List.of(
+                new SlotIndex.FloorCount(1, VehicleType.BIKE, 1, 1),
+                new SlotIndex.FloorCount(1, VehicleType.CAR, 7, 6),
+                new SlotIndex.FloorCount(2, VehicleType.CAR, 1, 1)), allocator.floorCounts());
+    }
+
+    @Test
+    void slotChangesDuringChurnLoseNoRelease() throws Exception {
+        SlotAllocator allocator = newAllocator(64);
+        AtomicInteger added = new AtomicInteger();
+
+        Thread admin = new Thread(() -> {
+            for (int batch = 0; batch < 50; batch++) {
+                List<ParkingSlot> slots = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    int n = added.getAndIncrement();
+                    ParkingSlot slot = new ParkingSlot("N-" + n, 1, VehicleType.CAR, SlotStatus.FREE);
+                    slot.setId(10_000L + n);
+                    slots.add(slot);
+                }
+                allocator.applyChanges(slots, List.of());
+            }
+        });
+        admin.start();
+        runConcurrently(() -> {
+            Gate[] gates = Gate.values();
+            for (int i = 0; i < 20_000; i++) {
+                ParkingSlot slot = allocator.claim(gates[i % gates.length], VehicleType.CAR);
+                if (slot != null) {
+                    allocator.release(slot);
+                }
+            }
+        });
+        admin.join();
+
+        Set<Long> claimed = new HashSet<>();
+        ParkingSlot slot;
+        while ((slot = allocator.claim(Gate.GATE_2, VehicleType.CAR)) != null) {
+            assertTrue(claimed.add(slot.getId()));
+        }
+        assertEquals(64 + added.get(), claimed.size());
+    }
+
+    @Test
+    void compactingAfterManyMovesKeepsClaimsAndLosesNoRelease() throws Exception {
+        SlotAllocator allocator = newAllocator(64);
+        // Claimed across every compaction, so it must never be handed out again
+        ParkingSlot held = allocator.claim(Gate.GATE_1, VehicleType.CAR);
+
+        Thread admin = new Thread(() -> {
+            for (int round = 0; round < 300; round++) {
+                // A slot moved to another floor gets a fresh compact id and leaves a hole
+                long id = round % 64;
+                if (id == held.getId()) {
+                    continue;
+                }
+                ParkingSlot moved = new ParkingSlot("S-" + id, 1 + round % 3, VehicleType.CAR, SlotStatus.FREE);
+                moved.setId(id);
+                allocator.applyChanges(List.of(moved), List.of());
+            }
+        });
+        admin.start();
+        runConcurrently(() -> {
+            Gate[] gates = Gate.values();
+            for (int i = 0; i < 20_000; i++) {
+                ParkingSlot slot = allocator.claim(gates[i % gates.length], VehicleType.CAR);
+                if (slot != null) {
+                    allocator.release(slot);
+                }
+            }
+        });
+        admin.join();
+
+        Set<Long> claimed = new HashSet<>();
+        ParkingSlot slot;
+        while ((slot = allocator.claim(Gate.GATE_2, VehicleType.CAR)) != null) {
+            assertTrue(claimed.add(slot.getId()));
+        }
+        assertEquals(63, claimed.size());
+        assertFalse(claimed.contains(held.getId()));
+        allocator.release(held);
+        assertEquals(held.getId(), allocator.claim(Gate.GATE_3, VehicleType.CAR)
+                .getId());
+        assertEquals(64, allocator.floorCounts()
+                .stream()
+                .mapToInt(SlotIndex.FloorCount::total)
+                .sum());
+    }
+
+    @Test
+    void fullRebuildDuringExitsLosesNoRelease() throws Exception {
+        SlotAllocator allocator = newAllocator(SLOTS);
+        Map<Long, ParkingSlot> parked = new ConcurrentHashMap<>();
+        ParkingSlot slot;
+        while ((slot = allocator.claim(Gate.GATE_1, VehicleType.CAR)) != null) {
+            parked.put(slot.getId(), slot);
+        }
+        // Stand-in for the slot table: an exit commits FREE before releasing in memory
+        Map<Long, SlotStatus> table = new ConcurrentHashMap<>();
+        parked.keySet()
+                .forEach(id -> table.put(id, SlotStatus.OCCUPIED));
+
+        Thread admin = new Thread(() -> {
+            while (table.containsValue(SlotStatus.OCCUPIED)) {
+                allocator.rebuild(() -> parked.values()
+                        .stream()
+                        .map(p -> {
+                            ParkingSlot copy = new ParkingSlot(p.getSlotNumber(), 1, VehicleType.CAR, table.get(p.getId()));
+                            copy.setId(p.getId());
+                            return copy;
+                        })
+                        .toList());
+            }
+        });
+        admin.start();
+        List<ParkingSlot> exits = new ArrayList<>(parked.values());
+        AtomicInteger next = new AtomicInteger();
+        runConcurrently(() -> {
+            int i;
+            while ((i = next.getAndIncrement()) < exits.size()) {
+                table.put(exits.get(i)
+                        .getId(), SlotStatus.FREE);
+                allocator.release(exits.get(i));
+            }
+        });
+        admin.join();
+
+        Set<Long> claimed = new HashSet<>();
+        while ((slot = allocator.claim(Gate.GATE_2, VehicleType.CAR)) != null) {
+            assertTrue(claimed.add(slot.getId()));
+        }
+        assertEquals(SLOTS, claimed.size());
+    }
+
+    @Test
+    void shardedGateEmptiesItsOwnShardThenStealsFromTheNearestOne() {
+        // 40 slots in a row, a gate every 10: GATE_2 at 10 owns slots 6-15
+        SlotAllocator allocator = newLineAllocator(40, 10);
+
+        List<Long> claimed = new ArrayList<>();
+        ParkingSlot slot;
+        while ((slot = allocator.claim(Gate.GATE_2, VehicleType.CAR)) != null) {
+            claimed.add(slot.getId());
+        }
+
+        List<Long> expected = new ArrayList<>(List.of(10L, 9L, 11L, 8L, 12L, 7L, 13L, 6L, 14L, 15L, 5L, 4L, 3L, 2L, 1L, 0L));
+        for (long id = 16; id < 40; id++) {
+            expected.add(id);
+        }
+        assertEquals(expected, claimed);
+    }
+
+    @Test
+    void shardedGatesClaimOnlyTheirOwnShardWhileItLasts() throws Exception {
+        int spacing = SLOTS / Gate.values().length;
+        SlotAllocator allocator = newLineAllocator(SLOTS, spacing);
+        // Claims left per gate before it would have to steal
+        AtomicInteger[] ownLeft = new AtomicInteger[Gate.values().length];
+        for (int id = 0; id < SLOTS; id++) {
+            int owner = ownerOnLine(id, spacing);
+            if (ownLeft[owner] == null) {
+                ownLeft[owner] = new AtomicInteger();
+            }
+            ownLeft[owner].incrementAndGet();
+        }
+        AtomicInteger nextThread = new AtomicInteger();
+        Set<Long> claimed = ConcurrentHashMap.newKeySet();
+        AtomicInteger foreign = new AtomicInteger();
+
+        runConcurrently(() -> {
+            Gate gate = Gate.values()[nextThread.getAndIncrement() % Gate.values().length];
+            while (ownLeft[gate.ordinal()].getAndDecrement() > 0) {
+                ParkingSlot slot = allocator.claim(gate, VehicleType.CAR);
+                claimed.add(slot.getId());
+                if (ownerOnLine(slot.getId()
+                        .intValue(), spacing) != gate.ordinal()) {
+                    foreign.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(0, foreign.get());
+        assertEquals(SLOTS, claimed.size());
+        assertNull(allocator.claim(Gate.GATE_1, VehicleType.CAR));
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+    }
+
+    private static SlotAllocator newAllocator(int slotCount) {
+        DistanceMatrix.Builder distances = DistanceMatrix.builder();
+        List<ParkingSlot> slots = new ArrayList<>();
+        for (int i = 0; i < slotCount; i++) {
+            ParkingSlot slot = new ParkingSlot("S-" + i, 1, VehicleType.CAR, SlotStatus.FREE);
+            slot.setId((long) i);
+            slots.add(slot);
+            for (Gate gate : Gate.values()) {
+                distances.put(gate, slot.getSlotNumber(), (i * (gate.ordinal() + 7)) % slotCount);
+            }
+        }
+
+        SlotAllocator allocator = new SlotAllocator(distances.build());
+        allocator.rebuild(() -> slots);
+        return allocator;
+    }
+
+    /**
+     * Sharded allocator over slots in a row, gate g standing at slot g * spacing.
+     */
+    private static SlotAllocator newLineAllocator(int slotCount, int spacing) {
+        DistanceMatrix.Builder distances = DistanceMatrix.builder();
+        List<ParkingSlot> slots = new ArrayList<>();
+        for (int i = 0; i < slotCount; i++) {
+            ParkingSlot slot = new ParkingSlot("S-" + i, 1, VehicleType.CAR, SlotStatus.FREE);
+            slot.setId((long) i);
+            slots.add(slot);
+            for (Gate gate : Gate.values()) {
+                distances.put(gate, slot.getSlotNumber(), Math.abs(i - gate.ordinal() * spacing));
+            }
+        }
+
+        SlotAllocator allocator = new SlotAllocator(distances.build(), true);
+        allocator.rebuild(() -> slots);
+        return allocator;
+    }
+
+    private static int ownerOnLine(int position, int spacing) {
+        int owner = 0;
+        for (int g = 1; g < Gate.values().length; g++) {
+            if (Math.abs(position - g * spacing) < Math.abs(position - owner * spacing)) {
+                owner = g;
+            }
+        }
+        return owner;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.parking.util;
+
+import com.example.parking.entity.Gate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistanceMatrixFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void mapsCompiledMatrixBackWithSameDistances() throws Exception {
+        DistanceMatrix matrix = DistanceMatrix.builder()
+                .put(Gate.GATE_1, "F1-01", 5)
+                .put(Gate.GATE_2, "F1-01", 9)
+                .put(Gate.GATE_4, "F2-07", 42)
+                .build();
+        Path file = dir.resolve("distances.bin");
+
+        DistanceMatrixFile.write(matrix, file, 100, 7);
+        DistanceMatrix mapped = DistanceMatrixFile.map(file, 100, 7, true)
+                .orElseThrow();
+
+        assertEquals(2, mapped.slotCount());
+        for (Gate gate : Gate.values()) {
+            assertEquals(matrix.distance(gate, "F1-01"), mapped.distance(gate, "F1-01"));
+            assertEquals(matrix.distance(gate, "F2-07"), mapped.distance(gate, "F2-07"));
+        }
+        assertEquals(DistanceMatrix.UNKNOWN, mapped.distance(Gate.GATE_1, "F9-99"));
+    }
+
+    @Test
+    void findsEverySlotInTheSortedNameTableWithoutVerifying() throws Exception {
+        DistanceMatrix.Builder builder = DistanceMatrix.builder();
+        for (int i = 500; i > 0; i--) {
+            builder.put(Gate.GATE_3, "F" + (i % 7) + "-" + i, i);
+        }
+        Path file = dir.resolve("distances.bin");
+
+        DistanceMatrixFile.write(builder.build(), file, 100, 7);
+        DistanceMatrix mapped = DistanceMatrixFile.map(file, 100, 7, false)
+                .orElseThrow();
+
+        for (int i = 1; i <= 500; i++) {
+            assertEquals(i, mapped.distance(Gate.GATE_3, "F" + (i % 7) + "-" + i));
+        }
+        assertEquals(-1, mapped.indexOf("F0-0"));
+        assertEquals(-1, mapped.indexOf("Z9-999"));
+    }
+
+    @Test
+    void checksTheBodyOnlyWhenVerifying() throws Exception {
+        Path file = dir.resolve("distances.bin");
+        DistanceMatrixFile.write(DistanceMatrix.builder()
+                .put(Gate.GATE_1, "F1-01", 5)
+                .build(), file, 100, 7);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+
+        assertTrue(DistanceMatrixFile.map(file, 100, 7, false)
+                .isPresent());
+        assertTrue(DistanceMatrixFile.map(file, 100, 7, true)
+                .isEmpty());
+    }
+
+    @Test
+    void rejectsTruncatedSidecar() throws Exception {
+        Path file = dir.resolve("distances.bin");
+        DistanceMatrixFile.write(DistanceMatrix.builder()
+                .put(Gate.GATE_1, "F1-01", 5)
+                .build(), file, 100, 7);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+
+        assertTrue(DistanceMatrixFile.map(file, 100, 7, false)
+                .isEmpty());
+    }
+
+    @Test
+    void rejectsSidecarCompiledFromDifferentSource() throws Exception {
+        Path file = dir.resolve("distances.bin");
+        DistanceMatrixFile.write(DistanceMatrix.builder()
+                .put(Gate.GATE_1, "F1-01", 5)
+                .build(), file, 100, 7);
+
+        Optional<DistanceMatrix> stale = DistanceMatrixFile.map(file, 101, 7, true);
+
+        assertTrue(stale.isEmpty());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.parking.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GroupCommitLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void concurrentAppendsAreAllRecoveredAndTornTailIsDropped() throws Exception {
+        Path file = dir.resolve("entries.journal");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try (GroupCommitLog log = new GroupCommitLog(file, 64)) {
+            List<CompletableFuture<Void>> appends = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                byte[] record = ("entry-" + i).getBytes(StandardCharsets.UTF_8);
+                appends.add(CompletableFuture.supplyAsync(() -> log.append(record), pool)
+                        .thenCompose(done -> done));
+            }
+            CompletableFuture.allOf(appends.toArray(new CompletableFuture[0]))
+                    .join();
+            assertEquals(2_000, log.durableCount());
+        } finally {
+            pool.shutdown();
+        }
+
+        // Half a frame, as left by a crash mid-write
+        Files.write(file, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        try (GroupCommitLog log = new GroupCommitLog(file, 64)) {
+            Set<String> recovered = new HashSet<>();
+            log.recovered()
+                    .forEach(record -> recovered.add(new String(record, StandardCharsets.UTF_8)));
+            assertEquals(2_000, recovered.size());
+            assertTrue(recovered.contains("entry-1999"));
+
+            log.append("after-restart".getBytes(StandardCharsets.UTF_8))
+                    .join();
+        }
+        try (GroupCommitLog log = new GroupCommitLog(file, 64)) {
+            assertEquals(2_001, log.recovered()
+                    .size());
+        }
+    }
+
+    @Test
+    void truncateKeepsRecordsTheCallerHasNotAccountedFor() throws Exception {
+        Path file = dir.resolve("entries.journal");
+        try (GroupCommitLog log = new GroupCommitLog(file, 64)) {
+            log.append(new byte[]{1})
+                    .join();
+            log.append(new byte[]{2})
+                    .join();
+
+            log.truncate(1)
+                    .join();
+            assertTrue(log.size() > 0);
+
+            log.truncate(2)
+                    .join();
+            assertEquals(0, log.size());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.parking.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentedLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordsRollOverSegmentsAndSurviveReopening() throws Exception {
+        try (SegmentedLog log = new SegmentedLog(dir, 256)) {
+            for (int i = 1; i <= 100; i++) {
+                assertEquals(i, log.append(("event-" + i).getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        assertTrue(segmentCount() > 1);
+
+        try (SegmentedLog log = new SegmentedLog(dir, 256)) {
+            assertEquals(100, log.lastSeq());
+            assertEquals(List.of("event-91", "event-92", "event-93", "event-94", "event-95",
+                    "event-96", "event-97", "event-98", "event-99", "event-100"), replay(log, 90));
+
+            // Segments fully covered by a snapshot go; the rest still replays
+            int before = segmentCount();
+            log.deleteThrough(60);
+            assertTrue(segmentCount() < before);
+            assertEquals(40, replay(log, 60).size());
+            assertEquals(101, log.append("event-101".getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Test
+    void tornFrameEndsTheLogAndIsOverwritten() throws Exception {
+        try (SegmentedLog log = new SegmentedLog(dir, 4096)) {
+            for (int i = 1; i <= 3; i++) {
+                log.append(("event-" + i).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        // Corrupt the payload of the last frame, as a crash mid-copy would
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.findFirst()
+                    .orElseThrow();
+        }
+        int frame = 16 + "event-1".length();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), 2L * frame + 16);
+        }
+
+        try (SegmentedLog log = new SegmentedLog(dir, 4096)) {
+            assertEquals(2, log.lastSeq());
+            assertEquals(3, log.append("event-3b".getBytes(StandardCharsets.UTF_8)));
+            assertEquals(List.of("event-1", "event-2", "event-3b"), replay(log, 0));
+        }
+    }
+
+    @Test
+    void framesAfterATornOneDoNotComeBackBehindLaterAppends() throws Exception {
+        try (SegmentedLog log = new SegmentedLog(dir, 4096)) {
+            for (int i = 1; i <= 4; i++) {
+                log.append(("event-" + i).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        // Tear frame 3; frame 4 behind it is still intact
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.findFirst()
+                    .orElseThrow();
+        }
+        int frame = 16 + "event-1".length();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), 2L * frame + 16);
+        }
+
+        // A rewritten frame 3 of the same length must not line up with the stale frame 4
+        try (SegmentedLog log = new SegmentedLog(dir, 4096)) {
+            assertEquals(3, log.append("event-X".getBytes(StandardCharsets.UTF_8)));
+        }
+        try (SegmentedLog log = new SegmentedLog(dir, 4096)) {
+            assertEquals(3, log.lastSeq());
+            assertEquals(List.of("event-1", "event-2", "event-X"), replay(log, 0));
+        }
+    }
+
+    private static List<String> replay(SegmentedLog log, long afterSeq) throws Exception {
+        List<String> records = new ArrayList<>();
+        log.replay(afterSeq, (payload, seq) -> records.add(new String(payload, StandardCharsets.UTF_8)));
+        return records;
+    }
+
+    private int segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return (int) files.count();
+        }
+    }
+}
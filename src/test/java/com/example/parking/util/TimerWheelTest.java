@@ -0,0 +1,57 @@
+package com.example.parking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+
+    private static final long TICK = Duration.ofMillis(10)
+            .toNanos();
+
+    @Test
+    void timeoutsExpireOnTheirDeadlineTickAcrossRounds() {
+        TimerWheel<String> wheel = new TimerWheel<>(Duration.ofNanos(TICK), 8, 0);
+        wheel.schedule("soon", 3 * TICK);
+        wheel.schedule("mid-tick", 5 * TICK + 1);
+        // Same bucket as "soon", two turns later
+        wheel.schedule("later", 19 * TICK);
+
+        List<String> expired = new ArrayList<>();
+        wheel.expire(3 * TICK - 1, expired::add);
+        assertEquals(List.of(), expired);
+        wheel.expire(3 * TICK, expired::add);
+        assertEquals(List.of("soon"), expired);
+        // Never early: a deadline inside a tick waits for the tick after it
+        wheel.expire(5 * TICK + 1, expired::add);
+        assertEquals(List.of("soon"), expired);
+        wheel.expire(18 * TICK, expired::add);
+        assertEquals(List.of("soon", "mid-tick"), expired);
+        wheel.expire(19 * TICK, expired::add);
+        assertEquals(List.of("soon", "mid-tick", "later"), expired);
+    }
+
+    @Test
+    void cancelAndExpiryHaveExactlyOneWinner() {
+        TimerWheel<String> wheel = new TimerWheel<>(Duration.ofNanos(TICK), 4, 0);
+        TimerWheel.Timeout<String> cancelled = wheel.schedule("cancelled", 2 * TICK);
+        TimerWheel.Timeout<String> kept = wheel.schedule("kept", 2 * TICK);
+        // Already past due when scheduled: expires on the next sweep
+        wheel.schedule("overdue", -TICK);
+
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+        List<String> expired = new ArrayList<>();
+        assertEquals(2, wheel.expire(2 * TICK, expired::add));
+        assertEquals(List.of("kept", "overdue"), expired.stream()
+                .sorted()
+                .toList());
+        assertFalse(kept.cancel());
+    }
+}